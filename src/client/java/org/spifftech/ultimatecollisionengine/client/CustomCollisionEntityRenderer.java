@@ -1,21 +1,51 @@
 package org.spifftech.ultimatecollisionengine.client;
 
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.joml.Vector4f;
+import org.spifftech.ultimatecollisionengine.boxcollision.ColliderShape;
 import org.spifftech.ultimatecollisionengine.entity.CustomCollisionEntity;
+import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.render.OverlayTexture;
+import net.minecraft.client.render.VertexConsumer;
 import net.minecraft.client.render.VertexConsumerProvider;
-import net.minecraft.client.render.WorldRenderer;
 import net.minecraft.client.render.entity.EntityRenderer;
 import net.minecraft.client.render.entity.EntityRendererFactory;
+import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.client.render.model.BakedQuad;
 import net.minecraft.client.util.math.MatrixStack;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.random.Random;
 import net.minecraft.client.render.block.BlockRenderManager;
 import net.minecraft.client.render.RenderLayers; // NEW: Needed to get the block consumer
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 public class CustomCollisionEntityRenderer extends EntityRenderer<CustomCollisionEntity> {
 
+    // Baked vertex layout: position (3), color (3), texture (2), normal (3), shade index (1)
+    private static final int VERTEX_STRIDE = 12;
+    // Shade index of quads that are not shaded by face direction
+    private static final int NO_SHADE = 6;
+    // Distinct shapes are few in practice; the cache is simply dropped if that ever stops being true
+    private static final int MAX_MESHES = 256;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
     private final BlockRenderManager blockRenderManager;
 
+    // One baked mesh per (shape, block state). Resource reloads create a new renderer, so atlas
+    // changes never see a stale mesh.
+    private final Map<MeshKey, float[]> meshes = new HashMap<>();
+    private final float[] brightness = new float[NO_SHADE + 1];
+    private final Vector4f position = new Vector4f();
+    private final Vector3f normal = new Vector3f();
+
     public CustomCollisionEntityRenderer(EntityRendererFactory.Context context) {
         super(context);
         this.blockRenderManager = MinecraftClient.getInstance().getBlockRenderManager();
@@ -25,47 +55,41 @@ public class CustomCollisionEntityRenderer extends EntityRenderer<CustomCollisio
     public void render(CustomCollisionEntity entity, float yaw, float tickDelta, MatrixStack matrices, VertexConsumerProvider vertexConsumers, int light) {
         matrices.push();
 
-        // 1. Light calculation (still needed)
-        int combinedLight = WorldRenderer.getLightmapCoordinates(entity.getWorld(), entity.getBlockPos());
-        int overlay = 0;
-
-        // 2. Scale it down a bit
-        matrices.scale(1f, 1f, 1f);
-
-        matrices.scale(2f, 2f, 2f);
-
-        // Calculate an independent, time-based rotation angle
-        // (entity.age is in ticks, add tickDelta for smooth interpolation between ticks)
-        // Here, 5.0f controls the speed (5 degrees per tick)
-        float spinAngle = (entity.age) * 1.0f;
-
-        // **IMPORTANT:** Translate to center the block.
-        // Entities render from the middle, blocks from a corner. We move the origin to the block's corner.
-        //matrices.translate(0.5, 0.5, 0.5);
-        matrices.translate(0.0, 0.5, 0.0);
+        // The same closed-form rotation the server builds its OBBs from (see ColliderMotion),
+        // interpolated with tickDelta so the spin is smooth between ticks
+        float spinAngle = entity.getSpinYaw(tickDelta);
 
         // --- 🔄 APPLY INDEPENDENT ROTATION ---
-        // Apply the time-based rotation around the Y-axis (up/down).
+        // Yaw around the Y-axis, then the pitch tilt, in the same order as SatCollisionHelper.writeObb.
+        // The shape's part offsets are in the rotated frame, exactly like the server-side OBBs.
         matrices.multiply(net.minecraft.util.math.RotationAxis.POSITIVE_Y.rotationDegrees(spinAngle));
-        matrices.translate(-0.5, -0.5, -0.5);
+        matrices.multiply(net.minecraft.util.math.RotationAxis.POSITIVE_X.rotationDegrees(entity.getMotion().getPitch()));
         // --- 🔄 END ROTATION ---
 
         // --- 🧱 Start Block Rendering Logic ---
 
-        net.minecraft.block.BlockState blockStateToRender = Blocks.STONE.getDefaultState();
-
-        net.minecraft.client.render.VertexConsumer blockConsumer =
-                vertexConsumers.getBuffer(RenderLayers.getMovingBlockLayer(blockStateToRender));
-
-        this.blockRenderManager.renderBlock(
-                blockStateToRender,
-                entity.getBlockPos(),
-                entity.getWorld(),
-                matrices,
-                blockConsumer,
-                false,
-                entity.getRandom()
-        );
+        BlockState blockStateToRender = Blocks.STONE.getDefaultState();
+        VertexConsumer blockConsumer = vertexConsumers.getBuffer(RenderLayers.getMovingBlockLayer(blockStateToRender));
+
+        // Face shading depends on the dimension, so it is applied per frame rather than baked
+        for (Direction direction : DIRECTIONS) {
+            brightness[direction.ordinal()] = entity.getWorld().getBrightness(direction, true);
+        }
+        brightness[NO_SHADE] = 1.0f;
+
+        float[] mesh = getMesh(entity.getShape(), blockStateToRender);
+        MatrixStack.Entry entry = matrices.peek();
+        Matrix4f positionMatrix = entry.getPositionMatrix();
+        Matrix3f normalMatrix = entry.getNormalMatrix();
+        for (int v = 0; v < mesh.length; v += VERTEX_STRIDE) {
+            positionMatrix.transform(position.set(mesh[v], mesh[v + 1], mesh[v + 2], 1.0f));
+            normalMatrix.transform(normal.set(mesh[v + 8], mesh[v + 9], mesh[v + 10]));
+            float shade = brightness[(int) mesh[v + 11]];
+            blockConsumer.vertex(position.x(), position.y(), position.z(),
+                    mesh[v + 3] * shade, mesh[v + 4] * shade, mesh[v + 5] * shade, 1.0f,
+                    mesh[v + 6], mesh[v + 7], OverlayTexture.DEFAULT_UV, light,
+                    normal.x(), normal.y(), normal.z());
+        }
 
         // --- 🧱 End Block Rendering Logic ---
 
@@ -73,8 +97,77 @@ public class CustomCollisionEntityRenderer extends EntityRenderer<CustomCollisio
         super.render(entity, yaw, tickDelta, matrices, vertexConsumers, light);
     }
 
+    private float[] getMesh(ColliderShape shape, BlockState state) {
+        MeshKey key = new MeshKey(shape, state);
+        float[] mesh = meshes.get(key);
+        if (mesh == null) {
+            if (meshes.size() >= MAX_MESHES) {
+                meshes.clear();
+            }
+            mesh = bake(shape, state);
+            meshes.put(key, mesh);
+        }
+        return mesh;
+    }
+
+    /**
+     * Emits the block model once per part, stretched to the part's full size and centered on its
+     * offset, into a flat vertex array in the collider's local frame.
+     */
+    private float[] bake(ColliderShape shape, BlockState state) {
+        BakedModel model = blockRenderManager.getModel(state);
+        Random random = Random.create(42L);
+
+        int quadCount = model.getQuads(state, null, random).size();
+        for (Direction direction : DIRECTIONS) {
+            quadCount += model.getQuads(state, direction, random).size();
+        }
+        float[] mesh = new float[shape.getPartCount() * quadCount * 4 * VERTEX_STRIDE];
+
+        int out = 0;
+        for (int part = 0; part < shape.getPartCount(); part++) {
+            out = bakeQuads(model.getQuads(state, null, random), shape, part, mesh, out);
+            for (Direction direction : DIRECTIONS) {
+                out = bakeQuads(model.getQuads(state, direction, random), shape, part, mesh, out);
+            }
+        }
+        return mesh;
+    }
+
+    private static int bakeQuads(List<BakedQuad> quads, ColliderShape shape, int part, float[] mesh, int out) {
+        double sizeX = shape.getHalfX(part) * 2.0, sizeY = shape.getHalfY(part) * 2.0, sizeZ = shape.getHalfZ(part) * 2.0;
+        for (BakedQuad quad : quads) {
+            int[] data = quad.getVertexData();
+            int stride = data.length / 4;
+            Direction face = quad.getFace();
+            for (int i = 0; i < 4; i++) {
+                int in = i * stride;
+                // Entities render from the middle, blocks from a corner: block space [0, 1] maps
+                // onto the part's box around its offset.
+                mesh[out] = (float) (shape.getOffsetX(part) + (Float.intBitsToFloat(data[in]) - 0.5) * sizeX);
+                mesh[out + 1] = (float) (shape.getOffsetY(part) + (Float.intBitsToFloat(data[in + 1]) - 0.5) * sizeY);
+                mesh[out + 2] = (float) (shape.getOffsetZ(part) + (Float.intBitsToFloat(data[in + 2]) - 0.5) * sizeZ);
+                int color = data[in + 3]; // ABGR
+                mesh[out + 3] = (color & 0xFF) / 255.0f;
+                mesh[out + 4] = (color >> 8 & 0xFF) / 255.0f;
+                mesh[out + 5] = (color >> 16 & 0xFF) / 255.0f;
+                mesh[out + 6] = Float.intBitsToFloat(data[in + 4]);
+                mesh[out + 7] = Float.intBitsToFloat(data[in + 5]);
+                mesh[out + 8] = face.getOffsetX();
+                mesh[out + 9] = face.getOffsetY();
+                mesh[out + 10] = face.getOffsetZ();
+                mesh[out + 11] = quad.hasShade() ? face.ordinal() : NO_SHADE;
+                out += VERTEX_STRIDE;
+            }
+        }
+        return out;
+    }
+
     @Override
     public Identifier getTexture(CustomCollisionEntity entity) {
         return new Identifier("minecraft", "textures/entity/stone.png");
     }
-}
\ No newline at end of file
+
+    private record MeshKey(ColliderShape shape, BlockState state) {
+    }
+}
@@ -2,8 +2,12 @@ package org.spifftech.ultimatecollisionengine.client;
 
 import net.fabricmc.api.ClientModInitializer;
 
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientEntityEvents;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.rendering.v1.EntityRendererRegistry;
 import org.spifftech.ultimatecollisionengine.Ultimatecollisionengine;
+import org.spifftech.ultimatecollisionengine.engine.ColliderIndex;
+import org.spifftech.ultimatecollisionengine.entity.CustomCollisionEntity;
 
 public class UltimatecollisionengineClient implements ClientModInitializer {
 
@@ -17,5 +21,19 @@ public class UltimatecollisionengineClient implements ClientModInitializer {
                     return new CustomCollisionEntityRenderer(context);
                 }
         );
+
+        // 3. Index client-side colliders too, so the local player's movement is clipped against
+        // them before it is sent (see ColliderMovement)
+        ClientEntityEvents.ENTITY_LOAD.register((entity, world) -> {
+            if (entity instanceof CustomCollisionEntity collider) {
+                ColliderIndex.of(world).add(collider);
+            }
+        });
+        ClientEntityEvents.ENTITY_UNLOAD.register((entity, world) -> {
+            if (entity instanceof CustomCollisionEntity collider) {
+                ColliderIndex.of(world).remove(collider);
+            }
+        });
+        ClientTickEvents.END_WORLD_TICK.register(world -> ColliderIndex.of(world).refresh());
     }
 }
@@ -0,0 +1,136 @@
+package org.spifftech.ultimatecollisionengine.benchmark;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import net.minecraft.util.math.Box;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spifftech.ultimatecollisionengine.boxcollision.AabbBuffer;
+import org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper;
+import org.spifftech.ultimatecollisionengine.engine.ColliderSpatialHash;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A synthetic collision tick with many colliders and many entities, without booting Minecraft.
+ * <p>
+ * Colliders live in a {@link ColliderSpatialHash} like in {@code CollisionWorld}. The world's entity
+ * lookup is stood in for by a second hash of entity boxes. Per occupied cell, the union of its
+ * colliders is queried, each candidate is paired with the colliders it overlaps (owner-cell rule)
+ * and every collider then batch-tests its candidates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadPhaseBenchmark {
+
+    // Side of the square area everything is spread over, in blocks
+    private static final double AREA = 256.0;
+
+    @Param({"64", "1024"})
+    public int colliders;
+
+    @Param({"1000", "10000"})
+    public int entities;
+
+    private ColliderSpatialHash<double[]> colliderHash;
+    private ColliderSpatialHash<Box> entityHash;
+    private final List<ColliderSpatialHash.Handle<double[]>> colliderHandles = new ArrayList<>();
+    private final List<AabbBuffer> candidates = new ArrayList<>();
+    private double[] depths = new double[64];
+    private float yaw;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        colliderHash = new ColliderSpatialHash<>();
+        colliderHandles.clear();
+        candidates.clear();
+        for (int i = 0; i < colliders; i++) {
+            double[] obb = new double[SatCollisionHelper.OBB_STRIDE];
+            SatCollisionHelper.writeObb(obb, 0,
+                    random.nextDouble(AREA), 64.0 + random.nextDouble(8.0), random.nextDouble(AREA),
+                    1.0, 1.0, 1.0, (float) random.nextDouble(360.0), 0.0f);
+            ColliderSpatialHash.Handle<double[]> handle = colliderHash.insert(obb, SatCollisionHelper.getBounds(obb, 0));
+            handle.id = i;
+            colliderHandles.add(handle);
+            candidates.add(new AabbBuffer());
+        }
+
+        entityHash = new ColliderSpatialHash<>();
+        for (int i = 0; i < entities; i++) {
+            double x = random.nextDouble(AREA);
+            double y = 64.0 + random.nextDouble(8.0);
+            double z = random.nextDouble(AREA);
+            Box box = new Box(x - 0.3, y, z - 0.3, x + 0.3, y + 1.8, z + 0.3);
+            entityHash.insert(box, box);
+        }
+    }
+
+    /**
+     * Refreshing every spinning collider's transform and its place in the hash.
+     */
+    @Benchmark
+    public int updateColliders() {
+        yaw += 1.0f;
+        for (int i = 0; i < colliderHandles.size(); i++) {
+            ColliderSpatialHash.Handle<double[]> handle = colliderHandles.get(i);
+            double[] obb = handle.value;
+            SatCollisionHelper.writeObb(obb, 0, obb[0], obb[1], obb[2], 1.0, 1.0, 1.0, yaw + i, 0.0f);
+            colliderHash.update(handle, SatCollisionHelper.getBounds(obb, 0));
+        }
+        return colliderHash.size();
+    }
+
+    /**
+     * Broad phase plus narrow phase over the whole scene.
+     */
+    @Benchmark
+    public int tick() {
+        for (int i = 0; i < candidates.size(); i++) {
+            candidates.get(i).clear();
+        }
+
+        for (Long2ObjectMap.Entry<List<ColliderSpatialHash.Handle<double[]>>> cell : colliderHash.cells()) {
+            long key = cell.getLongKey();
+            List<ColliderSpatialHash.Handle<double[]>> cellColliders = cell.getValue();
+            entityHash.query(ColliderSpatialHash.cellQuery(key, cellColliders), entity -> {
+                Box box = entity.value;
+                for (int i = 0, n = cellColliders.size(); i < n; i++) {
+                    ColliderSpatialHash.Handle<double[]> collider = cellColliders.get(i);
+                    if (collider.getBounds().intersects(box)
+                            && ColliderSpatialHash.isOwnerCell(key, collider.getBounds(), box)) {
+                        candidates.get(collider.id).add(box);
+                    }
+                }
+            });
+        }
+
+        int hits = 0;
+        for (int i = 0; i < colliderHandles.size(); i++) {
+            AabbBuffer boxes = candidates.get(i);
+            if (boxes.size() == 0) {
+                continue;
+            }
+            if (depths.length < boxes.size()) {
+                depths = new double[boxes.size() * 2];
+            }
+            hits += SatCollisionHelper.obbAabbBatch(colliderHandles.get(i).value, 0, boxes, depths);
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,109 @@
+package org.spifftech.ultimatecollisionengine.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spifftech.ultimatecollisionengine.boxcollision.AabbBuffer;
+import org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single OBB-AABB tests on the packed kernels. Each case is run with an axis-aligned and a
+ * 45° yawed collider, since rotation decides which axes can separate and how early.
+ * {@code intersects} and {@code contact} stop at the first separating axis, so SEPARATED measures
+ * the early-out and TOUCHING / DEEP the full 15-axis walk. {@code batch} is branchless and always
+ * walks all 15 axes for every box.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SatKernelBenchmark {
+
+    private static final int BATCH_SIZE = 256;
+
+    // SEPARATED: clear gap, TOUCHING: faces within 1e-3, DEEP: the box sits inside the collider
+    @Param({"SEPARATED", "TOUCHING", "DEEP"})
+    public String placement;
+
+    @Param({"0", "45"})
+    public float yaw;
+
+    private final double[] obb = new double[SatCollisionHelper.OBB_STRIDE];
+    private final SatCollisionHelper.Contact contact = new SatCollisionHelper.Contact();
+    private double minX, minY, minZ, maxX, maxY, maxZ;
+    private int lastAxis; // What a coherence cache would hold for this pair
+
+    private final AabbBuffer batch = new AabbBuffer(BATCH_SIZE);
+    private final double[] depths = new double[BATCH_SIZE];
+
+    @Setup
+    public void setup() {
+        // The default collider: a 2x2x2 box two blocks above its origin
+        SatCollisionHelper.writeObb(obb, 0, 0.0, 2.0, 0.0, 1.0, 1.0, 1.0, yaw, 0.0f);
+        // Furthest extent of the collider along world X (sqrt(2) when yawed 45°)
+        double reach = yaw == 0.0f ? 1.0 : Math.sqrt(2.0);
+
+        // A player-sized box, placed along +X relative to the collider
+        double x;
+        switch (placement) {
+            case "SEPARATED" -> x = reach + 2.0;
+            case "TOUCHING" -> x = reach + 0.3 - 1e-3;
+            case "DEEP" -> x = 0.0;
+            default -> throw new IllegalArgumentException(placement);
+        }
+        minX = x - 0.3;
+        minY = 1.5;
+        minZ = -0.3;
+        maxX = x + 0.3;
+        maxY = 3.3;
+        maxZ = 0.3;
+        lastAxis = SatCollisionHelper.obbAabbSeparatingAxis(obb, 0, minX, minY, minZ, maxX, maxY, maxZ);
+
+        // A mixed batch around the collider, roughly one hit in eight like a crowded area
+        SplittableRandom random = new SplittableRandom(42);
+        batch.clear();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            double bx = random.nextDouble(-8.0, 8.0);
+            double by = random.nextDouble(0.0, 4.0);
+            double bz = random.nextDouble(-8.0, 8.0);
+            batch.add(bx - 0.3, by, bz - 0.3, bx + 0.3, by + 1.8, bz + 0.3);
+        }
+    }
+
+    @Benchmark
+    public boolean intersects() {
+        return SatCollisionHelper.obbAabbIntersects(obb, 0, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * The early-out test started at last tick's separating axis, as used with {@code SeparatingAxisCache}.
+     */
+    @Benchmark
+    public int intersectsCached() {
+        return SatCollisionHelper.obbAabbSeparatingAxis(obb, 0, minX, minY, minZ, maxX, maxY, maxZ, lastAxis);
+    }
+
+    @Benchmark
+    public boolean contact() {
+        return SatCollisionHelper.obbAabbContact(obb, 0, minX, minY, minZ, maxX, maxY, maxZ, contact);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int batch() {
+        return SatCollisionHelper.obbAabbBatch(obb, 0, batch, depths);
+    }
+}
@@ -0,0 +1,83 @@
+package org.spifftech.ultimatecollisionengine.benchmark;
+
+import org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper;
+
+import java.util.SplittableRandom;
+
+/**
+ * Checks {@link SatCollisionHelper#obbAabbSweep} against the discrete test sub-sampled along the
+ * same motion, run with {@code ./gradlew checkSweep} (optionally -PsweepArgs="<cases> <seed>").
+ * <p>
+ * Every random case moves a box past a randomly sized and rotated OBB. Wherever one of the
+ * {@link #SAMPLES} discrete steps finds an overlap, the sweep must report a hit, at a time no later
+ * than that step. The sweep may also report grazing hits the samples step over, so only misses
+ * and late hits are failures. Exits with status 1 if any case fails.
+ */
+public final class SweepCheck {
+
+    private static final int SAMPLES = 64;
+    // Slack on the time of impact, for the epsilon the kernels add to the projected radii
+    private static final double TIME_TOLERANCE = 1e-6;
+    private static final int MAX_LISTED = 10;
+
+    private SweepCheck() {
+    }
+
+    public static void main(String[] args) {
+        int cases = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] obb = new double[SatCollisionHelper.OBB_STRIDE];
+        SatCollisionHelper.Contact contact = new SatCollisionHelper.Contact();
+        int sampledHits = 0, missed = 0, late = 0;
+
+        for (int i = 0; i < cases; i++) {
+            SatCollisionHelper.writeObb(obb, 0, 0.0, 0.0, 0.0,
+                    random.nextDouble(0.05, 3.0), random.nextDouble(0.05, 3.0), random.nextDouble(0.05, 3.0),
+                    (float) random.nextDouble(-180.0, 180.0), (float) random.nextDouble(-90.0, 90.0));
+
+            // A box of up to player size starting anywhere near the OBB, moving up to 8 blocks
+            double halfX = random.nextDouble(0.05, 0.6), halfY = random.nextDouble(0.05, 1.0), halfZ = random.nextDouble(0.05, 0.6);
+            double x = random.nextDouble(-6.0, 6.0), y = random.nextDouble(-6.0, 6.0), z = random.nextDouble(-6.0, 6.0);
+            double motionX = random.nextDouble(-8.0, 8.0), motionY = random.nextDouble(-8.0, 8.0), motionZ = random.nextDouble(-8.0, 8.0);
+
+            int firstHit = -1;
+            for (int s = 0; s <= SAMPLES && firstHit < 0; s++) {
+                double t = (double) s / SAMPLES;
+                double cx = x + motionX * t, cy = y + motionY * t, cz = z + motionZ * t;
+                if (SatCollisionHelper.obbAabbIntersects(obb, 0,
+                        cx - halfX, cy - halfY, cz - halfZ, cx + halfX, cy + halfY, cz + halfZ)) {
+                    firstHit = s;
+                }
+            }
+            if (firstHit < 0) {
+                continue;
+            }
+            sampledHits++;
+
+            boolean hit = SatCollisionHelper.obbAabbSweep(obb, 0,
+                    x - halfX, y - halfY, z - halfZ, x + halfX, y + halfY, z + halfZ,
+                    motionX, motionY, motionZ, contact);
+            double sampleTime = (double) firstHit / SAMPLES;
+            if (!hit) {
+                missed++;
+                report(missed + late, "missed", i, sampleTime, Double.NaN);
+            } else if (contact.time > sampleTime + TIME_TOLERANCE) {
+                late++;
+                report(missed + late, "late", i, sampleTime, contact.time);
+            }
+        }
+
+        System.out.printf("%d cases, %d hit by the sampled test: %d missed, %d late%n", cases, sampledHits, missed, late);
+        if (missed + late > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void report(int failures, String kind, int index, double sampleTime, double sweepTime) {
+        if (failures <= MAX_LISTED) {
+            System.out.printf("  case %d %s: sampled hit at %.4f, sweep %.4f%n", index, kind, sampleTime, sweepTime);
+        }
+    }
+}
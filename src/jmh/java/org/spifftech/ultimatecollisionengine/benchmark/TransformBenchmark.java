@@ -0,0 +1,60 @@
+package org.spifftech.ultimatecollisionengine.benchmark;
+
+import net.minecraft.util.math.Vec3d;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a collider's OBB, i.e. the work behind {@code CustomCollisionEntity.updateTransform()}
+ * and {@code getCurrentObb()}, which need a live entity and so cannot be benchmarked directly.
+ * The yaw keeps changing so nothing can be hoisted out of the loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformBenchmark {
+
+    private final double[] obb = new double[SatCollisionHelper.OBB_STRIDE];
+    private float yaw;
+
+    @Benchmark
+    public double[] packedYaw() {
+        yaw += 1.0f;
+        SatCollisionHelper.writeObb(obb, 0, 10.0, 64.0, 10.0, 1.0, 1.0, 1.0, yaw, 0.0f);
+        return obb;
+    }
+
+    @Benchmark
+    public double[] packedYawPitch() {
+        yaw += 1.0f;
+        SatCollisionHelper.writeObb(obb, 0, 10.0, 64.0, 10.0, 1.0, 1.0, 1.0, yaw, 30.0f);
+        return obb;
+    }
+
+    /**
+     * The allocating wrapper path: rotated Vec3d axes, then {@link SatCollisionHelper.OBB}.
+     */
+    @Benchmark
+    public SatCollisionHelper.OBB wrapper() {
+        yaw += 1.0f;
+        Vec3d[] axes = {
+                new Vec3d(1.0, 0.0, 0.0).rotateY((float) Math.toRadians(yaw)),
+                new Vec3d(0.0, 1.0, 0.0),
+                new Vec3d(0.0, 0.0, 1.0).rotateY((float) Math.toRadians(yaw))
+        };
+        return new SatCollisionHelper.OBB(new Vec3d(10.0, 64.0, 10.0), axes, new Vec3d(1.0, 1.0, 1.0));
+    }
+}
@@ -3,7 +3,6 @@ package org.spifftech.ultimatecollisionengine;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.gamerule.v1.GameRuleFactory;
 import net.fabricmc.fabric.api.gamerule.v1.GameRuleRegistry;
-import net.fabricmc.fabric.api.object.builder.v1.entity.FabricDefaultAttributeRegistry;
 import net.fabricmc.fabric.api.object.builder.v1.entity.FabricEntityTypeBuilder;
 import net.minecraft.entity.EntityDimensions;
 import net.minecraft.entity.EntityType;
@@ -17,36 +16,61 @@ import net.minecraft.util.Identifier;
 
 
 import net.minecraft.world.GameRules;
+import org.spifftech.ultimatecollisionengine.command.UceCommand;
+import org.spifftech.ultimatecollisionengine.engine.CollisionEngine;
 import org.spifftech.ultimatecollisionengine.entity.CustomCollisionEntity;
-import org.spifftech.ultimatecollisionengine.entity.CustomCollisionEntityAttributes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 public class Ultimatecollisionengine implements ModInitializer {
 
     public static final String MOD_ID = "ultimatecollisionengine";
 
+    public static final Logger LOGGER = LoggerFactory.getLogger(MOD_ID);
+
 
     public static final EntityType<CustomCollisionEntity> CUSTOM_COLLISION_ENTITY = Registry.register(
             Registries.ENTITY_TYPE,
             new Identifier(MOD_ID, "custom_collision_entity"),
-            FabricEntityTypeBuilder.create(SpawnGroup.CREATURE, CustomCollisionEntity::new)
+            FabricEntityTypeBuilder.create(SpawnGroup.MISC, CustomCollisionEntity::new)
                     .dimensions(EntityDimensions.fixed(0.1f, 0.1f)) // Define width and height
 
                     .build()
     );
 
 
-    public static final GameRules.Key<GameRules.IntRule> CollisionPushDistance = GameRuleRegistry.register("CollisionPushDistance", GameRules.Category.MISC, GameRuleFactory.createIntRule(5));
+    // The collision gamerules are cached per world in CollisionSettings; every rule the engine
+    // reads refreshes that cache when it changes instead of being read during the tick.
+
+    // A push also adds 1/CollisionPushDistance of its separation to the entity's velocity
+    public static final GameRules.Key<GameRules.IntRule> CollisionPushDistance = GameRuleRegistry.register("CollisionPushDistance", GameRules.Category.MISC, GameRuleFactory.createIntRule(5, 1, (server, rule) -> CollisionEngine.onSettingsChanged(server)));
+
+    // Logs a per-second summary of each world's collisions (see CollisionDebugLog). Off by default.
+    public static final GameRules.Key<GameRules.BooleanRule> CollisionDebug = GameRuleRegistry.register("CollisionDebug", GameRules.Category.MISC, GameRuleFactory.createBooleanRule(false, (server, rule) -> CollisionEngine.onSettingsChanged(server)));
+
+    // Pushes on a player longer than this (in hundredths of a block) snap it to an absolute position instead of being folded into its velocity
+    public static final GameRules.Key<GameRules.IntRule> CollisionTeleportThreshold = GameRuleRegistry.register("CollisionTeleportThreshold", GameRules.Category.MISC, GameRuleFactory.createIntRule(50, 0, (server, rule) -> CollisionEngine.onSettingsChanged(server)));
+
+    // Extra room around each collider's bounds in the broad phase, in hundredths of a block
+    public static final GameRules.Key<GameRules.IntRule> CollisionQueryMargin = GameRuleRegistry.register("CollisionQueryMargin", GameRules.Category.MISC, GameRuleFactory.createIntRule(1, 0, (server, rule) -> CollisionEngine.onSettingsChanged(server)));
+
+    // At most this many pushes are applied per world per tick, the rest wait for the next tick. 0 for no limit.
+    public static final GameRules.Key<GameRules.IntRule> CollisionMaxPushes = GameRuleRegistry.register("CollisionMaxPushes", GameRules.Category.MISC, GameRuleFactory.createIntRule(4096, 0, (server, rule) -> CollisionEngine.onSettingsChanged(server)));
+
+    // Milliseconds one world's collision pass may take before colliders are deferred to the next tick. 0 for no budget.
+    public static final GameRules.Key<GameRules.IntRule> CollisionTickBudget = GameRuleRegistry.register("CollisionTickBudget", GameRules.Category.MISC, GameRuleFactory.createIntRule(10, 0, (server, rule) -> CollisionEngine.onSettingsChanged(server)));
 
 
 
 
     @Override
     public void onInitialize() {
-        FabricDefaultAttributeRegistry.register(
-                CUSTOM_COLLISION_ENTITY,
-                CustomCollisionEntityAttributes.createCustomAttributes()
-        );
+        // Shared per-world broad phase + narrow phase for all colliders
+        CollisionEngine.register();
+
+        // /uce stats
+        UceCommand.register();
     }
 
 }
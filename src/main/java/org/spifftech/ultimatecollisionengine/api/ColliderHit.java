@@ -0,0 +1,88 @@
+package org.spifftech.ultimatecollisionengine.api;
+
+import net.minecraft.util.math.Vec3d;
+import org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper;
+import org.spifftech.ultimatecollisionengine.entity.CustomCollisionEntity;
+
+/**
+ * Result of a {@link ColliderQueries} ray or shape cast. Mutable so callers casting every tick can
+ * reuse one instance; nothing in it is valid after a query that returned false.
+ */
+public class ColliderHit {
+
+    private CustomCollisionEntity collider;
+    private double distance;
+    private double fraction;
+    private double normalX, normalY, normalZ;
+    private double positionX, positionY, positionZ;
+
+    /**
+     * The collider that was hit, or null after a miss in a batch query.
+     */
+    public CustomCollisionEntity getCollider() {
+        return collider;
+    }
+
+    public boolean isHit() {
+        return collider != null;
+    }
+
+    /**
+     * How far the ray or shape travelled before the hit, in blocks. 0 if it started inside.
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * The same distance as a fraction of the full cast, in [0, 1].
+     */
+    public double getFraction() {
+        return fraction;
+    }
+
+    /**
+     * The surface normal at the hit, pointing out of the collider. For a ray that starts inside
+     * it faces back along the ray; for a shape that starts overlapping it is zero.
+     */
+    public Vec3d getNormal() {
+        return new Vec3d(normalX, normalY, normalZ);
+    }
+
+    public double getNormalX() {
+        return normalX;
+    }
+
+    public double getNormalY() {
+        return normalY;
+    }
+
+    public double getNormalZ() {
+        return normalZ;
+    }
+
+    /**
+     * For rays, the point where the ray enters the collider. For shape casts, the center of the
+     * cast shape at the time of impact, i.e. the furthest it can be moved.
+     */
+    public Vec3d getPosition() {
+        return new Vec3d(positionX, positionY, positionZ);
+    }
+
+    void set(CustomCollisionEntity collider, SatCollisionHelper.Contact contact, double length,
+             double startX, double startY, double startZ, double moveX, double moveY, double moveZ) {
+        this.collider = collider;
+        this.fraction = contact.time;
+        this.distance = contact.time * length;
+        this.normalX = contact.normalX;
+        this.normalY = contact.normalY;
+        this.normalZ = contact.normalZ;
+        this.positionX = startX + moveX * contact.time;
+        this.positionY = startY + moveY * contact.time;
+        this.positionZ = startZ + moveZ * contact.time;
+    }
+
+    void clear() {
+        collider = null;
+    }
+}
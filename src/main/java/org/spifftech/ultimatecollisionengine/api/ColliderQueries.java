@@ -0,0 +1,306 @@
+package org.spifftech.ultimatecollisionengine.api;
+
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+import org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper;
+import org.spifftech.ultimatecollisionengine.engine.ColliderIndex;
+import org.spifftech.ultimatecollisionengine.entity.CustomCollisionEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Public queries against the rotated shapes of a world's colliders, for projectiles, targeting
+ * and other mods: ray casts, box and OBB casts, and point containment.
+ * <p>
+ * Every query goes through the world's {@link ColliderIndex}, so it only ever looks at colliders
+ * near the ray or shape, and only the nearest hit is returned. Queries work on both logical sides
+ * against that side's colliders, and must be called from the world's own thread (the server
+ * thread for a {@code ServerWorld}, the client thread for a {@code ClientWorld}).
+ */
+public final class ColliderQueries {
+
+    private static final double MIN_LENGTH_SQ = 1.0E-14;
+    private static final int RAY_STRIDE = 6;
+
+    // Queries run on the server thread and the client thread of the same JVM
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private ColliderQueries() {
+    }
+
+    // --- Rays ---
+
+    /**
+     * The nearest collider hit by the segment from {@code start} to {@code end}.
+     *
+     * @return true if a collider was hit; {@code out} then holds the hit.
+     */
+    public static boolean raycast(World world, Vec3d start, Vec3d end, ColliderHit out) {
+        return raycast(world, start.x, start.y, start.z, end.x - start.x, end.y - start.y, end.z - start.z, out);
+    }
+
+    /**
+     * The nearest collider hit by a ray of at most {@code maxDistance} blocks from an origin.
+     * {@code direction} does not have to be normalized.
+     *
+     * @return true if a collider was hit; {@code out} then holds the hit.
+     */
+    public static boolean raycast(World world, Vec3d origin, Vec3d direction, double maxDistance, ColliderHit out) {
+        double lengthSq = direction.lengthSquared();
+        if (lengthSq < MIN_LENGTH_SQ) {
+            return false;
+        }
+        double scale = maxDistance / Math.sqrt(lengthSq);
+        return raycast(world, origin.x, origin.y, origin.z,
+                direction.x * scale, direction.y * scale, direction.z * scale, out);
+    }
+
+    /**
+     * The nearest collider hit by the segment {@code origin + t * segment}, {@code t} in [0, 1].
+     */
+    private static boolean raycast(World world, double originX, double originY, double originZ,
+                                   double segmentX, double segmentY, double segmentZ, ColliderHit out) {
+        double lengthSq = segmentX * segmentX + segmentY * segmentY + segmentZ * segmentZ;
+        if (lengthSq < MIN_LENGTH_SQ) {
+            return false;
+        }
+        ColliderIndex index = ColliderIndex.of(world);
+        if (index.isEmpty()) {
+            return false;
+        }
+
+        Scratch scratch = SCRATCH.get();
+        SatCollisionHelper.Contact contact = scratch.contact;
+        scratch.nearest = null;
+        index.traverseRay(originX, originY, originZ, segmentX, segmentY, segmentZ, 1.0, (collider, maxT) -> {
+            collider.updateTransform();
+            if (collider.rayContact(originX, originY, originZ, segmentX, segmentY, segmentZ, maxT, contact)) {
+                scratch.nearest = collider;
+                return contact.time;
+            }
+            return maxT;
+        });
+        if (scratch.nearest == null) {
+            return false;
+        }
+        out.set(scratch.nearest, contact, Math.sqrt(lengthSq),
+                originX, originY, originZ, segmentX, segmentY, segmentZ);
+        scratch.nearest = null;
+        return true;
+    }
+
+    /**
+     * Casts many rays in one call. Colliders near the rays are gathered and brought up to date
+     * once for the whole batch instead of once per ray, so this pays off for rays that share an
+     * area (a spread shot, a fan of probe rays); for rays far apart, call {@link #raycast} per ray.
+     *
+     * @param rays  {@code count} rays, 6 doubles each: origin x, y, z then direction x, y, z.
+     *              Directions do not have to be normalized.
+     * @param hits  receives one result per ray; null entries are filled in. Misses have no collider.
+     * @return the number of rays that hit a collider.
+     */
+    public static int raycastBatch(World world, double[] rays, int count, double maxDistance, ColliderHit[] hits) {
+        Scratch scratch = SCRATCH.get();
+        List<CustomCollisionEntity> nearby = scratch.nearby;
+        nearby.clear();
+
+        ColliderIndex index = ColliderIndex.of(world);
+        if (!index.isEmpty() && count > 0) {
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                int o = i * RAY_STRIDE;
+                double scale = segmentScale(rays, o, maxDistance);
+                for (int end = 0; end < 2; end++) {
+                    double x = rays[o] + rays[o + 3] * scale * end;
+                    double y = rays[o + 1] + rays[o + 4] * scale * end;
+                    double z = rays[o + 2] + rays[o + 5] * scale * end;
+                    minX = Math.min(minX, x);
+                    minY = Math.min(minY, y);
+                    minZ = Math.min(minZ, z);
+                    maxX = Math.max(maxX, x);
+                    maxY = Math.max(maxY, y);
+                    maxZ = Math.max(maxZ, z);
+                }
+            }
+            index.query(new Box(minX, minY, minZ, maxX, maxY, maxZ), nearby);
+            for (int i = 0, n = nearby.size(); i < n; i++) {
+                nearby.get(i).updateTransform();
+            }
+        }
+
+        SatCollisionHelper.Contact contact = scratch.contact;
+        int hitCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (hits[i] == null) {
+                hits[i] = new ColliderHit();
+            }
+            hits[i].clear();
+            int o = i * RAY_STRIDE;
+            double scale = segmentScale(rays, o, maxDistance);
+            if (scale == 0.0) {
+                continue;
+            }
+            double ox = rays[o], oy = rays[o + 1], oz = rays[o + 2];
+            double sx = rays[o + 3] * scale, sy = rays[o + 4] * scale, sz = rays[o + 5] * scale;
+
+            CustomCollisionEntity nearest = null;
+            double maxT = 1.0;
+            for (int j = 0, n = nearby.size(); j < n; j++) {
+                CustomCollisionEntity collider = nearby.get(j);
+                if (collider.rayContact(ox, oy, oz, sx, sy, sz, maxT, contact)) {
+                    nearest = collider;
+                    maxT = contact.time;
+                }
+            }
+            if (nearest != null) {
+                hits[i].set(nearest, contact, maxDistance, ox, oy, oz, sx, sy, sz);
+                hitCount++;
+            }
+        }
+        nearby.clear();
+        return hitCount;
+    }
+
+    /**
+     * The factor that turns a batch ray's direction into a segment of {@code maxDistance} blocks,
+     * or 0 for a zero direction.
+     */
+    private static double segmentScale(double[] rays, int o, double maxDistance) {
+        double dx = rays[o + 3], dy = rays[o + 4], dz = rays[o + 5];
+        double lengthSq = dx * dx + dy * dy + dz * dz;
+        return lengthSq < MIN_LENGTH_SQ ? 0.0 : maxDistance / Math.sqrt(lengthSq);
+    }
+
+    // --- Shape casts ---
+
+    /**
+     * The first collider an axis-aligned box hits when moved by {@code motion}. A box that already
+     * overlaps a collider hits it at distance 0 with a zero normal.
+     *
+     * @return true if a collider was hit; {@code out} then holds the hit.
+     */
+    public static boolean boxCast(World world, Box box, Vec3d motion, ColliderHit out) {
+        Scratch scratch = SCRATCH.get();
+        List<CustomCollisionEntity> nearby = gather(world, box.stretch(motion), scratch);
+        SatCollisionHelper.Contact contact = scratch.contact;
+
+        CustomCollisionEntity nearest = null;
+        double maxTime = Double.POSITIVE_INFINITY;
+        for (int i = 0, n = nearby.size(); i < n; i++) {
+            CustomCollisionEntity collider = nearby.get(i);
+            if (collider.boxCastContact(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ,
+                    motion.x, motion.y, motion.z, maxTime, contact)) {
+                nearest = collider;
+                maxTime = contact.time;
+            }
+        }
+        nearby.clear();
+        if (nearest == null) {
+            return false;
+        }
+        setCastHit(out, nearest, contact, box.getCenter(), motion);
+        return true;
+    }
+
+    /**
+     * The first collider an oriented box hits when moved by {@code motion}. The box is given in
+     * the packed layout of {@link SatCollisionHelper} (see {@link SatCollisionHelper#writeObb}).
+     * A box that already overlaps a collider hits it at distance 0 with a zero normal.
+     *
+     * @return true if a collider was hit; {@code out} then holds the hit.
+     */
+    public static boolean obbCast(World world, double[] obb, int off, Vec3d motion, ColliderHit out) {
+        Scratch scratch = SCRATCH.get();
+        List<CustomCollisionEntity> nearby = gather(world,
+                SatCollisionHelper.getSweptBounds(obb, off, motion.x, motion.y, motion.z), scratch);
+        SatCollisionHelper.Contact contact = scratch.contact;
+
+        CustomCollisionEntity nearest = null;
+        double maxTime = Double.POSITIVE_INFINITY;
+        for (int i = 0, n = nearby.size(); i < n; i++) {
+            CustomCollisionEntity collider = nearby.get(i);
+            if (collider.obbCastContact(obb, off, motion.x, motion.y, motion.z, maxTime, contact)) {
+                nearest = collider;
+                maxTime = contact.time;
+            }
+        }
+        nearby.clear();
+        if (nearest == null) {
+            return false;
+        }
+        Vec3d center = new Vec3d(obb[off + SatCollisionHelper.OBB_CENTER],
+                obb[off + SatCollisionHelper.OBB_CENTER + 1], obb[off + SatCollisionHelper.OBB_CENTER + 2]);
+        setCastHit(out, nearest, contact, center, motion);
+        return true;
+    }
+
+    private static void setCastHit(ColliderHit out, CustomCollisionEntity collider, SatCollisionHelper.Contact contact,
+                                   Vec3d start, Vec3d motion) {
+        if (contact.axis < 0) {
+            // Overlapping from the start: the sweep has no entry face
+            contact.normalX = 0.0;
+            contact.normalY = 0.0;
+            contact.normalZ = 0.0;
+        }
+        out.set(collider, contact, motion.length(), start.x, start.y, start.z, motion.x, motion.y, motion.z);
+    }
+
+    // --- Points ---
+
+    /**
+     * Whether a point lies inside any collider.
+     */
+    public static boolean containsPoint(World world, double x, double y, double z) {
+        Scratch scratch = SCRATCH.get();
+        List<CustomCollisionEntity> nearby = gather(world, new Box(x, y, z, x, y, z), scratch);
+        boolean inside = false;
+        for (int i = 0, n = nearby.size(); i < n && !inside; i++) {
+            inside = nearby.get(i).containsPoint(x, y, z);
+        }
+        nearby.clear();
+        return inside;
+    }
+
+    /**
+     * Adds every collider containing a point to {@code out}.
+     *
+     * @return the number of colliders added.
+     */
+    public static int collidersAt(World world, double x, double y, double z, List<CustomCollisionEntity> out) {
+        Scratch scratch = SCRATCH.get();
+        List<CustomCollisionEntity> nearby = gather(world, new Box(x, y, z, x, y, z), scratch);
+        int found = 0;
+        for (int i = 0, n = nearby.size(); i < n; i++) {
+            CustomCollisionEntity collider = nearby.get(i);
+            if (collider.containsPoint(x, y, z)) {
+                out.add(collider);
+                found++;
+            }
+        }
+        nearby.clear();
+        return found;
+    }
+
+    /**
+     * The colliders whose spin bounds touch {@code region}, with their transforms brought up to
+     * date. The list is the thread's scratch list; clear it when done.
+     */
+    private static List<CustomCollisionEntity> gather(World world, Box region, Scratch scratch) {
+        List<CustomCollisionEntity> nearby = scratch.nearby;
+        nearby.clear();
+        ColliderIndex.of(world).query(region, nearby);
+        for (int i = 0, n = nearby.size(); i < n; i++) {
+            nearby.get(i).updateTransform();
+        }
+        return nearby;
+    }
+
+    private static final class Scratch {
+        final List<CustomCollisionEntity> nearby = new ArrayList<>();
+        final SatCollisionHelper.Contact contact = new SatCollisionHelper.Contact();
+        CustomCollisionEntity nearest;
+    }
+}
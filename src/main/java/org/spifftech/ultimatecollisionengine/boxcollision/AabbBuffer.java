@@ -0,0 +1,81 @@
+package org.spifftech.ultimatecollisionengine.boxcollision;
+
+import net.minecraft.util.math.Box;
+
+/**
+ * Growable structure-of-arrays buffer of AABBs for the batch SAT kernels.
+ * All boxes live in one packed array: component k (0-5 = minX, minY, minZ, maxX, maxY, maxZ)
+ * of box i is at {@code data[k * capacity + i]}, so each component is a contiguous run.
+ */
+public class AabbBuffer {
+
+    public static final int MIN_X = 0;
+    public static final int MIN_Y = 1;
+    public static final int MIN_Z = 2;
+    public static final int MAX_X = 3;
+    public static final int MAX_Y = 4;
+    public static final int MAX_Z = 5;
+
+    private double[] data;
+    private int capacity;
+    private int size;
+
+    public AabbBuffer() {
+        this(32);
+    }
+
+    public AabbBuffer(int initialCapacity) {
+        this.capacity = Math.max(1, initialCapacity);
+        this.data = new double[this.capacity * 6];
+    }
+
+    public void add(Box box) {
+        add(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ);
+    }
+
+    public void add(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        if (size == capacity) {
+            grow();
+        }
+        data[MIN_X * capacity + size] = minX;
+        data[MIN_Y * capacity + size] = minY;
+        data[MIN_Z * capacity + size] = minZ;
+        data[MAX_X * capacity + size] = maxX;
+        data[MAX_Y * capacity + size] = maxY;
+        data[MAX_Z * capacity + size] = maxZ;
+        size++;
+    }
+
+    public double get(int component, int index) {
+        return data[component * capacity + index];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The distance between two components of the same box, i.e. the length of each run.
+     */
+    public int stride() {
+        return capacity;
+    }
+
+    public double[] data() {
+        return data;
+    }
+
+    private void grow() {
+        int newCapacity = capacity * 2;
+        double[] newData = new double[newCapacity * 6];
+        for (int k = 0; k < 6; k++) {
+            System.arraycopy(data, k * capacity, newData, k * newCapacity, size);
+        }
+        data = newData;
+        capacity = newCapacity;
+    }
+}
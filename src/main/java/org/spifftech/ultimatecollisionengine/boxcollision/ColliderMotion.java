@@ -0,0 +1,101 @@
+package org.spifftech.ultimatecollisionengine.boxcollision;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+
+/**
+ * Immutable kinematic rotation of a collider: a spin about the vertical axis at a constant rate,
+ * starting from a phase at a given world tick, with a fixed pitch tilt. The rotation at any time
+ * is a closed-form function of the world time, so the server and every client evaluate the same
+ * orientation from one synced value instead of a yaw sent every tick.
+ * <p>
+ * The collider transform only has yaw and pitch (see {@link SatCollisionHelper#writeObb(double[], int,
+ * double, double, double, double, double, double, float, float)}), so the spin axis is always
+ * world up; the pitch tilts the shape within that spin.
+ */
+public final class ColliderMotion {
+
+    // The original behaviour: one degree per tick, anchored to world time 0
+    public static final ColliderMotion DEFAULT = new ColliderMotion(1.0f, 0.0f, 0.0f, 0L);
+    // No rotation at all; such colliders never rebuild their transform unless moved
+    public static final ColliderMotion STATIC = new ColliderMotion(0.0f, 0.0f, 0.0f, 0L);
+
+    private final float yawRate;  // Degrees per tick
+    private final float yawPhase; // Degrees at startTick
+    private final float pitch;    // Degrees
+    private final long startTick; // World time the phase refers to
+
+    public ColliderMotion(float yawRate, float yawPhase, float pitch, long startTick) {
+        this.yawRate = yawRate;
+        this.yawPhase = yawPhase;
+        this.pitch = pitch;
+        this.startTick = startTick;
+    }
+
+    /**
+     * The yaw in degrees at a world time, plus {@code tickDelta} of the following tick for
+     * interpolated rendering. Evaluated in double precision, so it stays exact on old worlds.
+     */
+    public float getYaw(long worldTime, float tickDelta) {
+        double yaw = yawPhase + yawRate * ((double) (worldTime - startTick) + tickDelta);
+        return (float) (yaw % 360.0);
+    }
+
+    public float getYawRate() {
+        return yawRate;
+    }
+
+    public float getYawPhase() {
+        return yawPhase;
+    }
+
+    public float getPitch() {
+        return pitch;
+    }
+
+    public long getStartTick() {
+        return startTick;
+    }
+
+    public boolean isStatic() {
+        return yawRate == 0.0f;
+    }
+
+    // --- NBT ---
+
+    public NbtCompound toNbt() {
+        NbtCompound nbt = new NbtCompound();
+        nbt.putFloat("YawRate", yawRate);
+        nbt.putFloat("YawPhase", yawPhase);
+        nbt.putFloat("Pitch", pitch);
+        nbt.putLong("StartTick", startTick);
+        return nbt;
+    }
+
+    /**
+     * Reads a motion written by {@link #toNbt()}, or {@link #DEFAULT} if there is none, e.g. for
+     * colliders saved before motion was configurable.
+     */
+    public static ColliderMotion fromNbt(NbtCompound nbt) {
+        if (!nbt.contains("YawRate", NbtElement.FLOAT_TYPE)) {
+            return DEFAULT;
+        }
+        return new ColliderMotion(nbt.getFloat("YawRate"), nbt.getFloat("YawPhase"),
+                nbt.getFloat("Pitch"), nbt.getLong("StartTick"));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ColliderMotion other
+                && yawRate == other.yawRate && yawPhase == other.yawPhase
+                && pitch == other.pitch && startTick == other.startTick);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Float.hashCode(yawRate);
+        result = 31 * result + Float.hashCode(yawPhase);
+        result = 31 * result + Float.hashCode(pitch);
+        return 31 * result + Long.hashCode(startTick);
+    }
+}
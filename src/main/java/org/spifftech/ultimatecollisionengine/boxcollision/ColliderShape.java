@@ -0,0 +1,228 @@
+package org.spifftech.ultimatecollisionengine.boxcollision;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtList;
+
+import java.util.Arrays;
+
+/**
+ * Immutable collider shape in the collider's local frame: one or more boxes ("parts"), each with
+ * half extents and an offset from the entity position. All parts share the collider's rotation.
+ * <p>
+ * A bounding sphere around all parts is precomputed. It does not change with rotation, so the
+ * narrow phase can reject a whole compound with one distance check before testing any part.
+ */
+public final class ColliderShape {
+
+    // Per part: half extents (3) then local offset (3)
+    public static final int PART_STRIDE = 6;
+
+    // The original hard-coded collider: a 2x2x2 box centered 2 blocks above the entity position.
+    public static final ColliderShape DEFAULT = new ColliderShape(new double[] {1.0, 1.0, 1.0, 0.0, 2.0, 0.0});
+
+    private static final String PARTS_KEY = "Parts";
+
+    private final double[] parts;
+    private final int partCount;
+
+    // Local bounding sphere
+    private final double sphereX, sphereY, sphereZ, sphereRadius;
+    // Local (unrotated) bounds of all parts
+    private final double minX, minY, minZ, maxX, maxY, maxZ;
+    // Smallest half extent of any part, i.e. half the thinnest wall something could tunnel through
+    private final double minHalfExtent;
+
+    private ColliderShape(double[] parts) {
+        if (parts.length == 0 || parts.length % PART_STRIDE != 0) {
+            throw new IllegalArgumentException("A collider shape needs at least one part of " + PART_STRIDE + " values");
+        }
+        this.parts = parts;
+        this.partCount = parts.length / PART_STRIDE;
+
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        double minHalfExtent = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < partCount; i++) {
+            minHalfExtent = Math.min(minHalfExtent, Math.min(getHalfX(i), Math.min(getHalfY(i), getHalfZ(i))));
+            minX = Math.min(minX, getOffsetX(i) - getHalfX(i));
+            minY = Math.min(minY, getOffsetY(i) - getHalfY(i));
+            minZ = Math.min(minZ, getOffsetZ(i) - getHalfZ(i));
+            maxX = Math.max(maxX, getOffsetX(i) + getHalfX(i));
+            maxY = Math.max(maxY, getOffsetY(i) + getHalfY(i));
+            maxZ = Math.max(maxZ, getOffsetZ(i) + getHalfZ(i));
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        this.minHalfExtent = minHalfExtent;
+
+        // Sphere around the local bounds' center that reaches the furthest corner of any part
+        this.sphereX = (minX + maxX) * 0.5;
+        this.sphereY = (minY + maxY) * 0.5;
+        this.sphereZ = (minZ + maxZ) * 0.5;
+        double radius = 0.0;
+        for (int i = 0; i < partCount; i++) {
+            double dx = Math.abs(getOffsetX(i) - sphereX) + getHalfX(i);
+            double dy = Math.abs(getOffsetY(i) - sphereY) + getHalfY(i);
+            double dz = Math.abs(getOffsetZ(i) - sphereZ) + getHalfZ(i);
+            radius = Math.max(radius, Math.sqrt(dx * dx + dy * dy + dz * dz));
+        }
+        this.sphereRadius = radius;
+    }
+
+    /**
+     * A shape made of a single box.
+     */
+    public static ColliderShape box(double halfX, double halfY, double halfZ,
+                                    double offsetX, double offsetY, double offsetZ) {
+        return new ColliderShape(new double[] {halfX, halfY, halfZ, offsetX, offsetY, offsetZ});
+    }
+
+    /**
+     * Returns a copy of this shape with one more box.
+     */
+    public ColliderShape withPart(double halfX, double halfY, double halfZ,
+                                  double offsetX, double offsetY, double offsetZ) {
+        double[] newParts = Arrays.copyOf(parts, parts.length + PART_STRIDE);
+        int i = parts.length;
+        newParts[i] = halfX;
+        newParts[i + 1] = halfY;
+        newParts[i + 2] = halfZ;
+        newParts[i + 3] = offsetX;
+        newParts[i + 4] = offsetY;
+        newParts[i + 5] = offsetZ;
+        return new ColliderShape(newParts);
+    }
+
+    public int getPartCount() {
+        return partCount;
+    }
+
+    public double getHalfX(int part) {
+        return parts[part * PART_STRIDE];
+    }
+
+    public double getHalfY(int part) {
+        return parts[part * PART_STRIDE + 1];
+    }
+
+    public double getHalfZ(int part) {
+        return parts[part * PART_STRIDE + 2];
+    }
+
+    public double getOffsetX(int part) {
+        return parts[part * PART_STRIDE + 3];
+    }
+
+    public double getOffsetY(int part) {
+        return parts[part * PART_STRIDE + 4];
+    }
+
+    public double getOffsetZ(int part) {
+        return parts[part * PART_STRIDE + 5];
+    }
+
+    public double getSphereX() {
+        return sphereX;
+    }
+
+    public double getSphereY() {
+        return sphereY;
+    }
+
+    public double getSphereZ() {
+        return sphereZ;
+    }
+
+    public double getSphereRadius() {
+        return sphereRadius;
+    }
+
+    public double getMinHalfExtent() {
+        return minHalfExtent;
+    }
+
+    public double getMinX() {
+        return minX;
+    }
+
+    public double getMinY() {
+        return minY;
+    }
+
+    public double getMinZ() {
+        return minZ;
+    }
+
+    public double getMaxX() {
+        return maxX;
+    }
+
+    public double getMaxY() {
+        return maxY;
+    }
+
+    public double getMaxZ() {
+        return maxZ;
+    }
+
+    // --- NBT ---
+
+    public NbtCompound toNbt() {
+        NbtList list = new NbtList();
+        for (int i = 0; i < partCount; i++) {
+            NbtCompound part = new NbtCompound();
+            part.putDouble("HalfX", getHalfX(i));
+            part.putDouble("HalfY", getHalfY(i));
+            part.putDouble("HalfZ", getHalfZ(i));
+            part.putDouble("OffsetX", getOffsetX(i));
+            part.putDouble("OffsetY", getOffsetY(i));
+            part.putDouble("OffsetZ", getOffsetZ(i));
+            list.add(part);
+        }
+        NbtCompound nbt = new NbtCompound();
+        nbt.put(PARTS_KEY, list);
+        return nbt;
+    }
+
+    /**
+     * Reads a shape written by {@link #toNbt()}. Falls back to {@link #DEFAULT} for missing or
+     * unusable data, e.g. colliders saved before shapes were configurable.
+     */
+    public static ColliderShape fromNbt(NbtCompound nbt) {
+        NbtList list = nbt.getList(PARTS_KEY, NbtElement.COMPOUND_TYPE);
+        if (list.isEmpty()) {
+            return DEFAULT;
+        }
+
+        double[] parts = new double[list.size() * PART_STRIDE];
+        for (int i = 0; i < list.size(); i++) {
+            NbtCompound part = list.getCompound(i);
+            int p = i * PART_STRIDE;
+            parts[p] = part.getDouble("HalfX");
+            parts[p + 1] = part.getDouble("HalfY");
+            parts[p + 2] = part.getDouble("HalfZ");
+            parts[p + 3] = part.getDouble("OffsetX");
+            parts[p + 4] = part.getDouble("OffsetY");
+            parts[p + 5] = part.getDouble("OffsetZ");
+            if (parts[p] <= 0.0 || parts[p + 1] <= 0.0 || parts[p + 2] <= 0.0) {
+                return DEFAULT;
+            }
+        }
+        return new ColliderShape(parts);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ColliderShape other && Arrays.equals(parts, other.parts));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(parts);
+    }
+}
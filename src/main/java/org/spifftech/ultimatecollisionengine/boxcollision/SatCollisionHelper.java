@@ -2,11 +2,14 @@ package org.spifftech.ultimatecollisionengine.boxcollision;
 
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.Box;
-import net.minecraft.util.math.Direction;
 
 /**
  * Utility class for OBB-AABB collision detection using the Separating Axis Theorem (SAT).
  * Uses Minecraft's built-in Vec3d and Box classes.
+ * <p>
+ * The hot path works on a packed, primitive OBB layout (see {@link #OBB_STRIDE}) so that a
+ * test performs no heap allocation. The {@link OBB} class and the {@code Box} overloads are
+ * thin wrappers around that kernel.
  */
 public class SatCollisionHelper {
 
@@ -14,11 +17,26 @@ public class SatCollisionHelper {
 
     // The AABB is represented directly by net.minecraft.util.math.Box.
     // Its axes are the world axes: X, Y, Z.
-    public static final Vec3d[] AABB_AXES = {
-            new Vec3d(1.0, 0.0, 0.0), // X-axis
-            new Vec3d(0.0, 1.0, 0.0), // Y-axis
-            new Vec3d(0.0, 0.0, 1.0)  // Z-axis
-    };
+
+    // --- 2. Packed OBB Layout ---
+
+    // An OBB is stored as 15 doubles: center (3), half extents (3), then the three
+    // normalized local axes U1, U2, U3 (3 each). Several OBBs can share one array.
+    public static final int OBB_STRIDE = 15;
+    public static final int OBB_CENTER = 0;
+    public static final int OBB_HALF_EXTENTS = 3;
+    public static final int OBB_AXES = 6;
+
+    // Added to the absolute rotation terms so near-parallel edge cross products
+    // (which have ~zero length) can never report a false separation.
+    static final double EPSILON = 1e-6;
+
+    /**
+     * An absolute rotation term with the epsilon added; every kernel pads |R| through this.
+     */
+    static double pad(double r) {
+        return Math.abs(r) + EPSILON;
+    }
 
     /**
      * Helper class to manage the OBB data.
@@ -29,6 +47,9 @@ public class SatCollisionHelper {
         public final Vec3d[] axes;         // U1, U2, U3 (must be normalized)
         public final Vec3d halfExtents;    // E1, E2, E3
 
+        // The same OBB in the packed layout consumed by the SAT kernel.
+        public final double[] packed = new double[OBB_STRIDE];
+
         public OBB(Vec3d center, Vec3d[] axes, Vec3d halfExtents) {
             this.center = center;
             // Normalize axes using Vec3d.normalize()
@@ -38,72 +59,176 @@ public class SatCollisionHelper {
                     axes[2].normalize()
             };
             this.halfExtents = halfExtents;
+            writeObb(this.packed, 0, center, this.axes, halfExtents);
         }
-    }
 
+        /**
+         * The tight world-axis-aligned bounds of this (rotated) box.
+         */
+        public Box getBounds() {
+            return SatCollisionHelper.getBounds(packed, 0);
+        }
 
-    // --- 2. Separating Axis Theorem (SAT) Logic ---
+        /**
+         * The bounds of this box swept along {@code motion}, e.g. its velocity over one tick.
+         */
+        public Box getSweptBounds(Vec3d motion) {
+            return SatCollisionHelper.getSweptBounds(packed, 0, motion.getX(), motion.getY(), motion.getZ());
+        }
+    }
 
     /**
-     * Calculates the projected radius (R) of an OBB onto a given axis (L).
-     * R = sum(|Ei * (Ui . L)|)
+     * Reusable result of a contact query: the minimum translation vector (MTV) that separates
+     * the two boxes, and a representative contact point.
+     * The normal is unit length and points from the OBB towards the other box, so moving the
+     * other box by {@code normal * depth} resolves the overlap.
      */
-    private static double projectObbRadius(OBB obb, Vec3d axis) {
-        double radius = 0.0;
-        // OBB axes U1, U2, U3 and half-extents E1, E2, E3
-        // Uses Vec3d.dotProduct()
-        radius += Math.abs(obb.halfExtents.getX() * obb.axes[0].dotProduct(axis));
-        radius += Math.abs(obb.halfExtents.getY() * obb.axes[1].dotProduct(axis));
-        radius += Math.abs(obb.halfExtents.getZ() * obb.axes[2].dotProduct(axis));
-        return radius;
+    public static class Contact {
+        public double normalX, normalY, normalZ;
+        public double depth;
+        public double pointX, pointY, pointZ;
+        // Index of the axis the MTV lies on: 0-2 OBB axes, 3-5 world axes, 6-14 cross products (Ui x Xj)
+        public int axis;
+        // Swept queries only: fraction of the motion at which the boxes first touch, in [0, 1]
+        public double time;
+        // Swept queries only: fraction of the motion at which the boxes separate again
+        double exitTime;
+
+        public Vec3d getNormal() {
+            return new Vec3d(normalX, normalY, normalZ);
+        }
+
+        public Vec3d getPoint() {
+            return new Vec3d(pointX, pointY, pointZ);
+        }
+
+        /**
+         * Copies another contact into this one.
+         */
+        public void set(Contact other) {
+            normalX = other.normalX;
+            normalY = other.normalY;
+            normalZ = other.normalZ;
+            depth = other.depth;
+            pointX = other.pointX;
+            pointY = other.pointY;
+            pointZ = other.pointZ;
+            axis = other.axis;
+            time = other.time;
+        }
+
+        void reset() {
+            depth = Double.MAX_VALUE;
+            axis = -1;
+            time = 0.0;
+        }
     }
 
     /**
-     * Calculates the projected radius (R) of an AABB (Box) onto a given axis (L).
-     * This is a simplified version since the AABB axes are the world axes (X, Y, Z).
+     * Writes an OBB into a packed array at the given offset. The axes are copied as-is,
+     * so they must already be normalized.
      */
-    private static double projectAabbRadius(Box aabb, Vec3d axis) {
-        double halfEx = (aabb.maxX - aabb.minX) / 2.0;
-        double halfEy = (aabb.maxY - aabb.minY) / 2.0;
-        double halfEz = (aabb.maxZ - aabb.minZ) / 2.0;
-
-        double radius = 0.0;
-        // Since AABB axes align with world axes, dot product with X, Y, Z simplifies to components
-        radius += Math.abs(halfEx * axis.getX());
-        radius += Math.abs(halfEy * axis.getY());
-        radius += Math.abs(halfEz * axis.getZ());
-        return radius;
+    public static void writeObb(double[] dst, int off, Vec3d center, Vec3d[] axes, Vec3d halfExtents) {
+        dst[off + OBB_CENTER] = center.getX();
+        dst[off + OBB_CENTER + 1] = center.getY();
+        dst[off + OBB_CENTER + 2] = center.getZ();
+        dst[off + OBB_HALF_EXTENTS] = halfExtents.getX();
+        dst[off + OBB_HALF_EXTENTS + 1] = halfExtents.getY();
+        dst[off + OBB_HALF_EXTENTS + 2] = halfExtents.getZ();
+        for (int i = 0; i < 3; i++) {
+            int a = off + OBB_AXES + i * 3;
+            dst[a] = axes[i].getX();
+            dst[a + 1] = axes[i].getY();
+            dst[a + 2] = axes[i].getZ();
+        }
     }
 
 
     /**
-     * Checks if a given axis is a separating axis in 3D space.
-     * Returns true if separated (a gap is found), false if overlapping.
+     * Writes an OBB rotated by yaw then pitch (the same order as
+     * {@code RotationAxis.POSITIVE_Y} followed by {@code RotationAxis.POSITIVE_X}) straight into
+     * a packed array, without going through quaternions or Vec3d.
+     * When pitch is zero only one sin/cos pair is evaluated.
      */
-    private static boolean isSeparatingAxis(OBB obb, Box aabb, Vec3d axis) {
-        // 1. Check for a near-zero axis length (handles cross-products of parallel axes)
-        // Uses Vec3d.lengthSquared()
-        if (axis.lengthSquared() < 1e-6) {
-            return false;
-        }
+    public static void writeObb(double[] dst, int off,
+                                double centerX, double centerY, double centerZ,
+                                double halfX, double halfY, double halfZ,
+                                float yawDegrees, float pitchDegrees) {
+        dst[off + OBB_CENTER] = centerX;
+        dst[off + OBB_CENTER + 1] = centerY;
+        dst[off + OBB_CENTER + 2] = centerZ;
+        dst[off + OBB_HALF_EXTENTS] = halfX;
+        dst[off + OBB_HALF_EXTENTS + 1] = halfY;
+        dst[off + OBB_HALF_EXTENTS + 2] = halfZ;
 
-        // 2. Get the radius (projected half-length) of each box onto the axis
-        double rObb = projectObbRadius(obb, axis);
-        double rAabb = projectAabbRadius(aabb, axis);
+        double yaw = Math.toRadians(yawDegrees);
+        double sinYaw = Math.sin(yaw);
+        double cosYaw = Math.cos(yaw);
 
-        // 3. Calculate the distance between the projected centers
-        // Box.getCenter() is a built-in method
-        Vec3d cAabb = aabb.getCenter();
-        Vec3d cObbToCAabb = cAabb.subtract(obb.center); // Vec3d.subtract()
+        int ax = off + OBB_AXES;
+        // U1 (Local X) only depends on yaw
+        dst[ax] = cosYaw;
+        dst[ax + 1] = 0.0;
+        dst[ax + 2] = -sinYaw;
 
-        // Projected center distance: | (C_aabb - C_obb) . axis |
-        // Uses Vec3d.dotProduct()
-        double distanceBetweenCentersProj = Math.abs(cObbToCAabb.dotProduct(axis));
+        if (pitchDegrees == 0.0f) {
+            // Pure yaw: U2 is world up, U3 is U1 turned a quarter around Y
+            dst[ax + 3] = 0.0;
+            dst[ax + 4] = 1.0;
+            dst[ax + 5] = 0.0;
+            dst[ax + 6] = sinYaw;
+            dst[ax + 7] = 0.0;
+            dst[ax + 8] = cosYaw;
+            return;
+        }
+
+        double pitch = Math.toRadians(pitchDegrees);
+        double sinPitch = Math.sin(pitch);
+        double cosPitch = Math.cos(pitch);
+        dst[ax + 3] = sinYaw * sinPitch;
+        dst[ax + 4] = cosPitch;
+        dst[ax + 5] = cosYaw * sinPitch;
+        dst[ax + 6] = sinYaw * cosPitch;
+        dst[ax + 7] = -sinPitch;
+        dst[ax + 8] = cosYaw * cosPitch;
+    }
+
+    /**
+     * Returns the smallest world-axis-aligned Box that contains a packed OBB.
+     * The half size along world axis j is the sum of Ei * |Ui[j]|.
+     */
+    public static Box getBounds(double[] obb, int off) {
+        return getSweptBounds(obb, off, 0.0, 0.0, 0.0);
+    }
 
-        // 4. Check for separation (if distance > sum of radii)
-        return distanceBetweenCentersProj > (rObb + rAabb);
+    /**
+     * Returns the smallest world-axis-aligned Box containing a packed OBB over a straight
+     * move by {@code (motionX, motionY, motionZ)}, i.e. its bounds at the start and end of the move.
+     * This is exactly the region a broad-phase query needs to cover for the box.
+     */
+    public static Box getSweptBounds(double[] obb, int off, double motionX, double motionY, double motionZ) {
+        double a0 = obb[off + OBB_HALF_EXTENTS];
+        double a1 = obb[off + OBB_HALF_EXTENTS + 1];
+        double a2 = obb[off + OBB_HALF_EXTENTS + 2];
+        int ax = off + OBB_AXES;
+        double hx = a0 * Math.abs(obb[ax]) + a1 * Math.abs(obb[ax + 3]) + a2 * Math.abs(obb[ax + 6]);
+        double hy = a0 * Math.abs(obb[ax + 1]) + a1 * Math.abs(obb[ax + 4]) + a2 * Math.abs(obb[ax + 7]);
+        double hz = a0 * Math.abs(obb[ax + 2]) + a1 * Math.abs(obb[ax + 5]) + a2 * Math.abs(obb[ax + 8]);
+        double cx = obb[off + OBB_CENTER];
+        double cy = obb[off + OBB_CENTER + 1];
+        double cz = obb[off + OBB_CENTER + 2];
+        return new Box(
+                cx - hx + Math.min(motionX, 0.0),
+                cy - hy + Math.min(motionY, 0.0),
+                cz - hz + Math.min(motionZ, 0.0),
+                cx + hx + Math.max(motionX, 0.0),
+                cy + hy + Math.max(motionY, 0.0),
+                cz + hz + Math.max(motionZ, 0.0));
     }
 
+
+    // --- 3. Separating Axis Theorem (SAT) Logic ---
+
     /**
      * Checks for intersection between an OBB and a Minecraft Box (AABB) using SAT.
      * Tests 15 potential separating axes.
@@ -112,37 +237,809 @@ public class SatCollisionHelper {
      * @return true if the boxes intersect, false otherwise (a separating axis was found).
      */
     public static boolean obbAabbIntersects(OBB obb, Box aabb) {
+        return obbAabbIntersects(obb.packed, 0,
+                aabb.minX, aabb.minY, aabb.minZ, aabb.maxX, aabb.maxY, aabb.maxZ);
+    }
+
+    /**
+     * Allocation-free OBB-AABB test on a packed OBB, in the rotation-matrix form of
+     * Gottschalk et al. (also in Ericson, "Real-Time Collision Detection", 4.4.1).
+     * <p>
+     * The AABB's axes are the world axes, so the rotation matrix between the two boxes is
+     * simply R[i][j] = Ui[j], and every one of the 15 axis tests reduces to a handful of
+     * multiply-adds on values computed once up front.
+     *
+     * @return true if the boxes intersect, false otherwise (a separating axis was found).
+     */
+    public static boolean obbAabbIntersects(double[] obb, int off,
+                                            double minX, double minY, double minZ,
+                                            double maxX, double maxY, double maxZ) {
+        return obbAabbSeparatingAxis(obb, off, minX, minY, minZ, maxX, maxY, maxZ) < 0;
+    }
+
+    /**
+     * The early-out kernel behind {@link #obbAabbIntersects(double[], int, double, double, double, double, double, double)}:
+     * returns the index of the first axis that separates the boxes (0-2 OBB axes, 3-5 world axes,
+     * 6-14 cross products, in test order), or -1 if they intersect. Useful to see which tests
+     * reject most pairs.
+     */
+    public static int obbAabbSeparatingAxis(double[] obb, int off,
+                                            double minX, double minY, double minZ,
+                                            double maxX, double maxY, double maxZ) {
+        SatFrame f = new SatFrame().obbAabb(obb, off, minX, minY, minZ, maxX, maxY, maxZ);
+        double t0 = f.t0, t1 = f.t1, t2 = f.t2;
+
         // Test 1: 3 OBB axes (U1, U2, U3)
-        for (Vec3d axis : obb.axes) {
-            if (isSeparatingAxis(obb, aabb, axis)) {
-                return false;
+        if (Math.abs(t0) > f.radius0) return 0;
+        if (Math.abs(t1) > f.radius1) return 1;
+        if (Math.abs(t2) > f.radius2) return 2;
+
+        // Test 2: 3 AABB axes (World axes X, Y, Z)
+        if (Math.abs(f.tx) > f.radius3) return 3;
+        if (Math.abs(f.ty) > f.radius4) return 4;
+        if (Math.abs(f.tz) > f.radius5) return 5;
+
+        // Test 3: 9 Cross-products (Ui x Xj)
+        if (Math.abs(t2 * f.r10 - t1 * f.r20) > f.radius6) return 6;
+        if (Math.abs(t2 * f.r11 - t1 * f.r21) > f.radius7) return 7;
+        if (Math.abs(t2 * f.r12 - t1 * f.r22) > f.radius8) return 8;
+
+        if (Math.abs(t0 * f.r20 - t2 * f.r00) > f.radius9) return 9;
+        if (Math.abs(t0 * f.r21 - t2 * f.r01) > f.radius10) return 10;
+        if (Math.abs(t0 * f.r22 - t2 * f.r02) > f.radius11) return 11;
+
+        if (Math.abs(t1 * f.r00 - t0 * f.r10) > f.radius12) return 12;
+        if (Math.abs(t1 * f.r01 - t0 * f.r11) > f.radius13) return 13;
+        if (Math.abs(t1 * f.r02 - t0 * f.r12) > f.radius14) return 14;
+
+        // If no separating axis was found, they must intersect.
+        return -1;
+    }
+
+    /**
+     * Same as {@link #obbAabbSeparatingAxis(double[], int, double, double, double, double, double, double)},
+     * but tests {@code firstAxis} before the others. Passing the axis that separated the same pair
+     * last tick usually rejects the pair after a single test, since boxes rarely move far enough
+     * in one tick to change which axis separates them. A negative {@code firstAxis} tests in the
+     * plain order.
+     */
+    public static int obbAabbSeparatingAxis(double[] obb, int off,
+                                            double minX, double minY, double minZ,
+                                            double maxX, double maxY, double maxZ,
+                                            int firstAxis) {
+        SatFrame f = new SatFrame().obbAabb(obb, off, minX, minY, minZ, maxX, maxY, maxZ);
+        double t0 = f.t0, t1 = f.t1, t2 = f.t2;
+
+        // Pass -1 is the hinted axis, then 0-14 in the usual order with the hint skipped
+        for (int pass = firstAxis >= 0 && firstAxis < 15 ? -1 : 0; pass < 15; pass++) {
+            if (pass == firstAxis) {
+                continue;
+            }
+            int axis = pass < 0 ? firstAxis : pass;
+            boolean separated = switch (axis) {
+                case 0 -> Math.abs(t0) > f.radius0;
+                case 1 -> Math.abs(t1) > f.radius1;
+                case 2 -> Math.abs(t2) > f.radius2;
+                case 3 -> Math.abs(f.tx) > f.radius3;
+                case 4 -> Math.abs(f.ty) > f.radius4;
+                case 5 -> Math.abs(f.tz) > f.radius5;
+                case 6 -> Math.abs(t2 * f.r10 - t1 * f.r20) > f.radius6;
+                case 7 -> Math.abs(t2 * f.r11 - t1 * f.r21) > f.radius7;
+                case 8 -> Math.abs(t2 * f.r12 - t1 * f.r22) > f.radius8;
+                case 9 -> Math.abs(t0 * f.r20 - t2 * f.r00) > f.radius9;
+                case 10 -> Math.abs(t0 * f.r21 - t2 * f.r01) > f.radius10;
+                case 11 -> Math.abs(t0 * f.r22 - t2 * f.r02) > f.radius11;
+                case 12 -> Math.abs(t1 * f.r00 - t0 * f.r10) > f.radius12;
+                case 13 -> Math.abs(t1 * f.r01 - t0 * f.r11) > f.radius13;
+                default -> Math.abs(t1 * f.r02 - t0 * f.r12) > f.radius14;
+            };
+            if (separated) {
+                return axis;
             }
         }
+        return -1;
+    }
+
+    /**
+     * Same as {@link #obbAabbContact(double[], int, double, double, double, double, double, double, Contact)}
+     * for an {@link OBB} and a Minecraft Box.
+     */
+    public static boolean obbAabbContact(OBB obb, Box aabb, Contact out) {
+        return obbAabbContact(obb.packed, 0,
+                aabb.minX, aabb.minY, aabb.minZ, aabb.maxX, aabb.maxY, aabb.maxZ, out);
+    }
+
+    /**
+     * OBB-AABB test that also reports the contact: the axis of least penetration, the
+     * penetration depth along it and a contact point, all gathered during the same 15-axis
+     * sweep as {@link #obbAabbIntersects(double[], int, double, double, double, double, double, double)}.
+     * Performs no heap allocation; {@code out} is only meaningful when this returns true.
+     *
+     * @return true if the boxes intersect, false otherwise (a separating axis was found).
+     */
+    public static boolean obbAabbContact(double[] obb, int off,
+                                         double minX, double minY, double minZ,
+                                         double maxX, double maxY, double maxZ,
+                                         Contact out) {
+        SatFrame f = new SatFrame().obbAabb(obb, off, minX, minY, minZ, maxX, maxY, maxZ);
+        double tx = f.tx, ty = f.ty, tz = f.tz;
+        double r00 = f.r00, r01 = f.r01, r02 = f.r02;
+        double r10 = f.r10, r11 = f.r11, r12 = f.r12;
+        double r20 = f.r20, r21 = f.r21, r22 = f.r22;
+
+        out.reset();
+
+        // Test 1: 3 OBB axes (U1, U2, U3)
+        if (!contactAxis(out, 0, r00, r01, r02, f.t0, f.radius0)) return false;
+        if (!contactAxis(out, 1, r10, r11, r12, f.t1, f.radius1)) return false;
+        if (!contactAxis(out, 2, r20, r21, r22, f.t2, f.radius2)) return false;
 
         // Test 2: 3 AABB axes (World axes X, Y, Z)
-        for (Vec3d axis : AABB_AXES) {
-            if (isSeparatingAxis(obb, aabb, axis)) {
-                return false;
+        if (!contactAxis(out, 3, 1.0, 0.0, 0.0, tx, f.radius3)) return false;
+        if (!contactAxis(out, 4, 0.0, 1.0, 0.0, ty, f.radius4)) return false;
+        if (!contactAxis(out, 5, 0.0, 0.0, 1.0, tz, f.radius5)) return false;
+
+        // Test 3: 9 Cross-products (Ui x Xj). The world-space axis is needed for the MTV direction:
+        // Ui x X = (0, Uiz, -Uiy), Ui x Y = (-Uiz, 0, Uix), Ui x Z = (Uiy, -Uix, 0)
+        if (!contactAxis(out, 6, 0.0, r02, -r01, ty * r02 - tz * r01, f.radius6)) return false;
+        if (!contactAxis(out, 7, -r02, 0.0, r00, tz * r00 - tx * r02, f.radius7)) return false;
+        if (!contactAxis(out, 8, r01, -r00, 0.0, tx * r01 - ty * r00, f.radius8)) return false;
+
+        if (!contactAxis(out, 9, 0.0, r12, -r11, ty * r12 - tz * r11, f.radius9)) return false;
+        if (!contactAxis(out, 10, -r12, 0.0, r10, tz * r10 - tx * r12, f.radius10)) return false;
+        if (!contactAxis(out, 11, r11, -r10, 0.0, tx * r11 - ty * r10, f.radius11)) return false;
+
+        if (!contactAxis(out, 12, 0.0, r22, -r21, ty * r22 - tz * r21, f.radius12)) return false;
+        if (!contactAxis(out, 13, -r22, 0.0, r20, tz * r20 - tx * r22, f.radius13)) return false;
+        if (!contactAxis(out, 14, r21, -r20, 0.0, tx * r21 - ty * r20, f.radius14)) return false;
+
+        // Contact point: on an OBB face axis, the deepest AABB corner; on a world axis, the deepest
+        // OBB corner; on an edge-edge axis, the midpoint between the two.
+        double nx = out.normalX, ny = out.normalY, nz = out.normalZ;
+        double aabbX = nx > 0 ? minX : maxX;
+        double aabbY = ny > 0 ? minY : maxY;
+        double aabbZ = nz > 0 ? minZ : maxZ;
+        if (out.axis < 3) {
+            out.pointX = aabbX;
+            out.pointY = aabbY;
+            out.pointZ = aabbZ;
+            return true;
+        }
+
+        double s0 = (r00 * nx + r01 * ny + r02 * nz) >= 0 ? f.a0 : -f.a0;
+        double s1 = (r10 * nx + r11 * ny + r12 * nz) >= 0 ? f.a1 : -f.a1;
+        double s2 = (r20 * nx + r21 * ny + r22 * nz) >= 0 ? f.a2 : -f.a2;
+        double obbX = obb[off + OBB_CENTER] + r00 * s0 + r10 * s1 + r20 * s2;
+        double obbY = obb[off + OBB_CENTER + 1] + r01 * s0 + r11 * s1 + r21 * s2;
+        double obbZ = obb[off + OBB_CENTER + 2] + r02 * s0 + r12 * s1 + r22 * s2;
+        if (out.axis < 6) {
+            out.pointX = obbX;
+            out.pointY = obbY;
+            out.pointZ = obbZ;
+        } else {
+            out.pointX = (obbX + aabbX) * 0.5;
+            out.pointY = (obbY + aabbY) * 0.5;
+            out.pointZ = (obbZ + aabbZ) * 0.5;
+        }
+        return true;
+    }
+
+    /**
+     * One axis of the contact sweep. {@code (lx, ly, lz)} is the (possibly unnormalized) axis,
+     * {@code dist} the center offset projected onto it and {@code radius} the summed projected
+     * radii, both in units of the axis length.
+     * Returns false on separation, otherwise keeps the axis in {@code out} if it has the least overlap so far.
+     */
+    private static boolean contactAxis(Contact out, int axis, double lx, double ly, double lz,
+                                       double dist, double radius) {
+        double absDist = Math.abs(dist);
+        if (absDist > radius) {
+            return false;
+        }
+
+        double lengthSq = lx * lx + ly * ly + lz * lz;
+        // Cross products of (nearly) parallel axes have no usable direction for the MTV
+        if (lengthSq < EPSILON) {
+            return true;
+        }
+
+        double invLength = 1.0 / Math.sqrt(lengthSq);
+        double overlap = (radius - absDist) * invLength;
+        if (overlap < out.depth) {
+            double sign = dist < 0 ? -invLength : invLength;
+            out.depth = overlap;
+            out.axis = axis;
+            out.normalX = lx * sign;
+            out.normalY = ly * sign;
+            out.normalZ = lz * sign;
+        }
+        return true;
+    }
+
+
+    // --- 4. OBB-OBB SAT ---
+
+    /**
+     * OBB-OBB test on two packed OBBs (Gottschalk / Ericson 4.4.1). R[i][j] = Ai . Bj and its
+     * epsilon-padded absolute value are computed once; the 6 face axes are tested before the
+     * 9 edge-edge axes since they separate most disjoint pairs.
+     *
+     * @return true if the boxes intersect, false otherwise (a separating axis was found).
+     */
+    public static boolean obbObbIntersects(double[] a, int aOff, double[] b, int bOff) {
+        SatFrame f = new SatFrame().obbObb(a, aOff, b, bOff);
+        double t0 = f.t0, t1 = f.t1, t2 = f.t2;
+
+        // Test 1: 3 axes of A
+        if (Math.abs(t0) > f.radius0) return false;
+        if (Math.abs(t1) > f.radius1) return false;
+        if (Math.abs(t2) > f.radius2) return false;
+
+        // Test 2: 3 axes of B
+        if (Math.abs(t0 * f.r00 + t1 * f.r10 + t2 * f.r20) > f.radius3) return false;
+        if (Math.abs(t0 * f.r01 + t1 * f.r11 + t2 * f.r21) > f.radius4) return false;
+        if (Math.abs(t0 * f.r02 + t1 * f.r12 + t2 * f.r22) > f.radius5) return false;
+
+        // Test 3: 9 Cross-products (Ai x Bj)
+        if (Math.abs(t2 * f.r10 - t1 * f.r20) > f.radius6) return false;
+        if (Math.abs(t2 * f.r11 - t1 * f.r21) > f.radius7) return false;
+        if (Math.abs(t2 * f.r12 - t1 * f.r22) > f.radius8) return false;
+
+        if (Math.abs(t0 * f.r20 - t2 * f.r00) > f.radius9) return false;
+        if (Math.abs(t0 * f.r21 - t2 * f.r01) > f.radius10) return false;
+        if (Math.abs(t0 * f.r22 - t2 * f.r02) > f.radius11) return false;
+
+        if (Math.abs(t1 * f.r00 - t0 * f.r10) > f.radius12) return false;
+        if (Math.abs(t1 * f.r01 - t0 * f.r11) > f.radius13) return false;
+        if (Math.abs(t1 * f.r02 - t0 * f.r12) > f.radius14) return false;
+
+        return true;
+    }
+
+    /**
+     * OBB-OBB test that also reports the minimum translation vector, like
+     * {@link #obbAabbContact(double[], int, double, double, double, double, double, double, Contact)}.
+     * The normal points from A towards B. Axis indices: 0-2 axes of A, 3-5 axes of B,
+     * 6-14 cross products (Ai x Bj).
+     *
+     * @return true if the boxes intersect, false otherwise (a separating axis was found).
+     */
+    public static boolean obbObbContact(double[] a, int aOff, double[] b, int bOff, Contact out) {
+        SatFrame f = new SatFrame().obbObb(a, aOff, b, bOff);
+        double tx = f.tx, ty = f.ty, tz = f.tz;
+
+        out.reset();
+
+        // Test 1: 3 axes of A
+        if (!contactAxis(out, 0, f.a0x, f.a0y, f.a0z, f.t0, f.radius0)) return false;
+        if (!contactAxis(out, 1, f.a1x, f.a1y, f.a1z, f.t1, f.radius1)) return false;
+        if (!contactAxis(out, 2, f.a2x, f.a2y, f.a2z, f.t2, f.radius2)) return false;
+
+        // Test 2: 3 axes of B
+        if (!contactAxis(out, 3, f.b0x, f.b0y, f.b0z, tx * f.b0x + ty * f.b0y + tz * f.b0z, f.radius3)) return false;
+        if (!contactAxis(out, 4, f.b1x, f.b1y, f.b1z, tx * f.b1x + ty * f.b1y + tz * f.b1z, f.radius4)) return false;
+        if (!contactAxis(out, 5, f.b2x, f.b2y, f.b2z, tx * f.b2x + ty * f.b2y + tz * f.b2z, f.radius5)) return false;
+
+        // Test 3: 9 Cross-products (Ai x Bj), in world space for the MTV direction
+        if (!contactCrossAxis(out, 6, f.a0x, f.a0y, f.a0z, f.b0x, f.b0y, f.b0z, tx, ty, tz, f.radius6)) return false;
+        if (!contactCrossAxis(out, 7, f.a0x, f.a0y, f.a0z, f.b1x, f.b1y, f.b1z, tx, ty, tz, f.radius7)) return false;
+        if (!contactCrossAxis(out, 8, f.a0x, f.a0y, f.a0z, f.b2x, f.b2y, f.b2z, tx, ty, tz, f.radius8)) return false;
+
+        if (!contactCrossAxis(out, 9, f.a1x, f.a1y, f.a1z, f.b0x, f.b0y, f.b0z, tx, ty, tz, f.radius9)) return false;
+        if (!contactCrossAxis(out, 10, f.a1x, f.a1y, f.a1z, f.b1x, f.b1y, f.b1z, tx, ty, tz, f.radius10)) return false;
+        if (!contactCrossAxis(out, 11, f.a1x, f.a1y, f.a1z, f.b2x, f.b2y, f.b2z, tx, ty, tz, f.radius11)) return false;
+
+        if (!contactCrossAxis(out, 12, f.a2x, f.a2y, f.a2z, f.b0x, f.b0y, f.b0z, tx, ty, tz, f.radius12)) return false;
+        if (!contactCrossAxis(out, 13, f.a2x, f.a2y, f.a2z, f.b1x, f.b1y, f.b1z, tx, ty, tz, f.radius13)) return false;
+        if (!contactCrossAxis(out, 14, f.a2x, f.a2y, f.a2z, f.b2x, f.b2y, f.b2z, tx, ty, tz, f.radius14)) return false;
+
+        // Contact point: on a face of A, B's deepest corner; on a face of B, A's deepest corner;
+        // on an edge-edge axis, the midpoint between the two.
+        double nx = out.normalX, ny = out.normalY, nz = out.normalZ;
+        if (out.axis < 3) {
+            setSupportPoint(out, b, bOff, -nx, -ny, -nz);
+        } else if (out.axis < 6) {
+            setSupportPoint(out, a, aOff, nx, ny, nz);
+        } else {
+            setSupportPoint(out, a, aOff, nx, ny, nz);
+            double px = out.pointX, py = out.pointY, pz = out.pointZ;
+            setSupportPoint(out, b, bOff, -nx, -ny, -nz);
+            out.pointX = (out.pointX + px) * 0.5;
+            out.pointY = (out.pointY + py) * 0.5;
+            out.pointZ = (out.pointZ + pz) * 0.5;
+        }
+        return true;
+    }
+
+    /**
+     * {@link #contactAxis} for the edge-edge axis {@code u x v}, computed in world space.
+     */
+    private static boolean contactCrossAxis(Contact out, int axis,
+                                            double ux, double uy, double uz,
+                                            double vx, double vy, double vz,
+                                            double tx, double ty, double tz, double radius) {
+        double lx = uy * vz - uz * vy;
+        double ly = uz * vx - ux * vz;
+        double lz = ux * vy - uy * vx;
+        return contactAxis(out, axis, lx, ly, lz, tx * lx + ty * ly + tz * lz, radius);
+    }
+
+    /**
+     * Writes the corner of a packed OBB that lies furthest along {@code dir} into {@code out}'s point.
+     */
+    private static void setSupportPoint(Contact out, double[] obb, int off, double dirX, double dirY, double dirZ) {
+        double px = obb[off + OBB_CENTER];
+        double py = obb[off + OBB_CENTER + 1];
+        double pz = obb[off + OBB_CENTER + 2];
+        for (int i = 0; i < 3; i++) {
+            int axis = off + OBB_AXES + i * 3;
+            double ux = obb[axis], uy = obb[axis + 1], uz = obb[axis + 2];
+            double extent = obb[off + OBB_HALF_EXTENTS + i];
+            if (ux * dirX + uy * dirY + uz * dirZ < 0) {
+                extent = -extent;
             }
+            px += ux * extent;
+            py += uy * extent;
+            pz += uz * extent;
         }
+        out.pointX = px;
+        out.pointY = py;
+        out.pointZ = pz;
+    }
 
-        // Test 3: 9 Cross-products (Ui x Xj)
-        for (Vec3d obbAxis : obb.axes) {
-            for (Vec3d aabbAxis : AABB_AXES) {
-                // Vec3d.crossProduct() is the built-in method
-                Vec3d crossAxis = obbAxis.crossProduct(aabbAxis);
-
-                // Only test axes with a non-zero length
-                if (crossAxis.lengthSquared() > 1e-6) {
-                    Vec3d normalizedCrossAxis = crossAxis.normalize(); // Vec3d.normalize()
-                    if (isSeparatingAxis(obb, aabb, normalizedCrossAxis)) {
-                        return false;
-                    }
+
+    // --- 5. Batch SAT ---
+
+    /**
+     * Tests one packed OBB against many AABBs stored structure-of-arrays style (see {@link AabbBuffer}):
+     * component k of box i is at {@code boxes[k * stride + i]}.
+     * <p>
+     * For each box, writes the penetration depth along the axis of least overlap into
+     * {@code depthOut[i]}; it is {@code >= 0} for intersecting boxes and negative when a separating
+     * axis exists. The loop body is straight-line code without early-outs or branches, so the
+     * per-OBB terms stay in registers and the JIT is free to unroll/vectorize it.
+     *
+     * @return the number of intersecting boxes.
+     */
+    public static int obbAabbBatch(double[] obb, int off, double[] boxes, int stride, int count, double[] depthOut) {
+        double cx = obb[off + OBB_CENTER];
+        double cy = obb[off + OBB_CENTER + 1];
+        double cz = obb[off + OBB_CENTER + 2];
+        double a0 = obb[off + OBB_HALF_EXTENTS];
+        double a1 = obb[off + OBB_HALF_EXTENTS + 1];
+        double a2 = obb[off + OBB_HALF_EXTENTS + 2];
+
+        int ax = off + OBB_AXES;
+        double r00 = obb[ax], r01 = obb[ax + 1], r02 = obb[ax + 2];
+        double r10 = obb[ax + 3], r11 = obb[ax + 4], r12 = obb[ax + 5];
+        double r20 = obb[ax + 6], r21 = obb[ax + 7], r22 = obb[ax + 8];
+
+        double q00 = pad(r00), q01 = pad(r01), q02 = pad(r02);
+        double q10 = pad(r10), q11 = pad(r11), q12 = pad(r12);
+        double q20 = pad(r20), q21 = pad(r21), q22 = pad(r22);
+
+        // OBB-only parts of the world-axis radii
+        double ra3 = a0 * q00 + a1 * q10 + a2 * q20;
+        double ra4 = a0 * q01 + a1 * q11 + a2 * q21;
+        double ra5 = a0 * q02 + a1 * q12 + a2 * q22;
+
+        // Turn cross-axis overlaps into distances: |Ui x Xj| = sqrt(1 - Ui[j]^2).
+        // Degenerate (parallel) axes get scale 0 plus a huge bias so they never become the minimum.
+        double s00 = crossScale(r00), s01 = crossScale(r01), s02 = crossScale(r02);
+        double s10 = crossScale(r10), s11 = crossScale(r11), s12 = crossScale(r12);
+        double s20 = crossScale(r20), s21 = crossScale(r21), s22 = crossScale(r22);
+        double p00 = crossBias(s00), p01 = crossBias(s01), p02 = crossBias(s02);
+        double p10 = crossBias(s10), p11 = crossBias(s11), p12 = crossBias(s12);
+        double p20 = crossBias(s20), p21 = crossBias(s21), p22 = crossBias(s22);
+
+        int minXs = AabbBuffer.MIN_X * stride;
+        int minYs = AabbBuffer.MIN_Y * stride;
+        int minZs = AabbBuffer.MIN_Z * stride;
+        int maxXs = AabbBuffer.MAX_X * stride;
+        int maxYs = AabbBuffer.MAX_Y * stride;
+        int maxZs = AabbBuffer.MAX_Z * stride;
+
+        int hits = 0;
+        for (int i = 0; i < count; i++) {
+            double minX = boxes[minXs + i], maxX = boxes[maxXs + i];
+            double minY = boxes[minYs + i], maxY = boxes[maxYs + i];
+            double minZ = boxes[minZs + i], maxZ = boxes[maxZs + i];
+
+            double b0 = (maxX - minX) * 0.5;
+            double b1 = (maxY - minY) * 0.5;
+            double b2 = (maxZ - minZ) * 0.5;
+            double tx = (minX + maxX) * 0.5 - cx;
+            double ty = (minY + maxY) * 0.5 - cy;
+            double tz = (minZ + maxZ) * 0.5 - cz;
+            double t0 = tx * r00 + ty * r01 + tz * r02;
+            double t1 = tx * r10 + ty * r11 + tz * r12;
+            double t2 = tx * r20 + ty * r21 + tz * r22;
+
+            // Test 1: 3 OBB axes (U1, U2, U3)
+            double depth = a0 + b0 * q00 + b1 * q01 + b2 * q02 - Math.abs(t0);
+            depth = Math.min(depth, a1 + b0 * q10 + b1 * q11 + b2 * q12 - Math.abs(t1));
+            depth = Math.min(depth, a2 + b0 * q20 + b1 * q21 + b2 * q22 - Math.abs(t2));
+
+            // Test 2: 3 AABB axes (World axes X, Y, Z)
+            depth = Math.min(depth, ra3 + b0 - Math.abs(tx));
+            depth = Math.min(depth, ra4 + b1 - Math.abs(ty));
+            depth = Math.min(depth, ra5 + b2 - Math.abs(tz));
+
+            // Test 3: 9 Cross-products (Ui x Xj)
+            depth = Math.min(depth, (a1 * q20 + a2 * q10 + b1 * q02 + b2 * q01 - Math.abs(t2 * r10 - t1 * r20)) * s00 + p00);
+            depth = Math.min(depth, (a1 * q21 + a2 * q11 + b0 * q02 + b2 * q00 - Math.abs(t2 * r11 - t1 * r21)) * s01 + p01);
+            depth = Math.min(depth, (a1 * q22 + a2 * q12 + b0 * q01 + b1 * q00 - Math.abs(t2 * r12 - t1 * r22)) * s02 + p02);
+
+            depth = Math.min(depth, (a0 * q20 + a2 * q00 + b1 * q12 + b2 * q11 - Math.abs(t0 * r20 - t2 * r00)) * s10 + p10);
+            depth = Math.min(depth, (a0 * q21 + a2 * q01 + b0 * q12 + b2 * q10 - Math.abs(t0 * r21 - t2 * r01)) * s11 + p11);
+            depth = Math.min(depth, (a0 * q22 + a2 * q02 + b0 * q11 + b1 * q10 - Math.abs(t0 * r22 - t2 * r02)) * s12 + p12);
+
+            depth = Math.min(depth, (a0 * q10 + a1 * q00 + b1 * q22 + b2 * q21 - Math.abs(t1 * r00 - t0 * r10)) * s20 + p20);
+            depth = Math.min(depth, (a0 * q11 + a1 * q01 + b0 * q22 + b2 * q20 - Math.abs(t1 * r01 - t0 * r11)) * s21 + p21);
+            depth = Math.min(depth, (a0 * q12 + a1 * q02 + b0 * q21 + b1 * q20 - Math.abs(t1 * r02 - t0 * r12)) * s22 + p22);
+
+            depthOut[i] = depth;
+            hits += depth >= 0.0 ? 1 : 0;
+        }
+        return hits;
+    }
+
+    /**
+     * Same as {@link #obbAabbBatch(double[], int, double[], int, int, double[])} for a whole {@link AabbBuffer}.
+     */
+    public static int obbAabbBatch(double[] obb, int off, AabbBuffer boxes, double[] depthOut) {
+        return obbAabbBatch(obb, off, boxes.data(), boxes.stride(), boxes.size(), depthOut);
+    }
+
+    private static double crossScale(double axisComponent) {
+        double lengthSq = 1.0 - axisComponent * axisComponent;
+        return lengthSq < EPSILON ? 0.0 : 1.0 / Math.sqrt(lengthSq);
+    }
+
+    private static double crossBias(double scale) {
+        return scale == 0.0 ? Double.MAX_VALUE : 0.0;
+    }
+
+
+    // --- 6. Bounding Spheres ---
+
+    /**
+     * Cheap pre-test for compound shapes: whether a sphere overlaps an AABB, using the squared
+     * distance from the sphere center to the closest point of the box.
+     */
+    public static boolean sphereAabbIntersects(double centerX, double centerY, double centerZ, double radius,
+                                               double minX, double minY, double minZ,
+                                               double maxX, double maxY, double maxZ) {
+        double dx = centerX - Math.max(minX, Math.min(centerX, maxX));
+        double dy = centerY - Math.max(minY, Math.min(centerY, maxY));
+        double dz = centerZ - Math.max(minZ, Math.min(centerZ, maxZ));
+        return dx * dx + dy * dy + dz * dz <= radius * radius;
+    }
+
+    /**
+     * Cheap pre-test for ray casts: whether the ray {@code origin + t * dir}, {@code t} in
+     * {@code [0, maxT]}, passes through a sphere.
+     */
+    public static boolean raySphereIntersects(double centerX, double centerY, double centerZ, double radius,
+                                              double originX, double originY, double originZ,
+                                              double dirX, double dirY, double dirZ, double maxT) {
+        double mx = originX - centerX, my = originY - centerY, mz = originZ - centerZ;
+        double c = mx * mx + my * my + mz * mz - radius * radius;
+        if (c <= 0.0) {
+            return true; // Starts inside
+        }
+        double b = mx * dirX + my * dirY + mz * dirZ;
+        if (b > 0.0) {
+            return false; // Starts outside and points away
+        }
+        double a = dirX * dirX + dirY * dirY + dirZ * dirZ;
+        double discriminant = b * b - a * c;
+        return discriminant >= 0.0 && (-b - Math.sqrt(discriminant)) <= maxT * a;
+    }
+
+
+    // --- 7. Swept SAT ---
+
+    /**
+     * Whether a box moving by {@code (motionX, motionY, motionZ)} relative to an OBB needs the swept
+     * test: it moves further than the thinner of the two is thick, so it could have passed straight
+     * through. Anything slower is caught by testing where it ended up.
+     */
+    public static boolean sweepNeeded(double motionX, double motionY, double motionZ, double obbMinHalfExtent,
+                                      double minX, double minY, double minZ,
+                                      double maxX, double maxY, double maxZ) {
+        double thickness = Math.min(obbMinHalfExtent * 2.0,
+                Math.min(maxX - minX, Math.min(maxY - minY, maxZ - minZ)));
+        return motionX * motionX + motionY * motionY + motionZ * motionZ > thickness * thickness;
+    }
+
+    /**
+     * Swept OBB-AABB test: the OBB stays put while the AABB moves by {@code (motionX, motionY, motionZ)}
+     * (the relative motion over the step, e.g. one tick). On every one of the 15 axes the projected
+     * gap closes linearly, so each axis gives the interval of the move during which it overlaps; the
+     * boxes touch where all intervals overlap and the time of impact is the latest entry.
+     * <p>
+     * On a hit, {@code out.time} is the time of impact as a fraction of the motion (0 if the boxes
+     * already overlap at the start), the normal is the axis that was entered last (pointing from the
+     * OBB towards the box, like {@link #obbAabbContact}), {@code out.depth} is 0 and the point is the
+     * box's leading corner at the time of impact. Performs no heap allocation.
+     *
+     * @return true if the boxes touch at some point during the motion.
+     */
+    public static boolean obbAabbSweep(double[] obb, int off,
+                                       double minX, double minY, double minZ,
+                                       double maxX, double maxY, double maxZ,
+                                       double motionX, double motionY, double motionZ,
+                                       Contact out) {
+        SatFrame f = new SatFrame().obbAabb(obb, off, minX, minY, minZ, maxX, maxY, maxZ);
+        double tx = f.tx, ty = f.ty, tz = f.tz;
+        double r00 = f.r00, r01 = f.r01, r02 = f.r02;
+        double r10 = f.r10, r11 = f.r11, r12 = f.r12;
+        double r20 = f.r20, r21 = f.r21, r22 = f.r22;
+
+        // Motion in the OBB's local frame
+        double v0 = motionX * r00 + motionY * r01 + motionZ * r02;
+        double v1 = motionX * r10 + motionY * r11 + motionZ * r12;
+        double v2 = motionX * r20 + motionY * r21 + motionZ * r22;
+
+        out.reset();
+        out.depth = 0.0;
+        out.time = Double.NEGATIVE_INFINITY;
+        out.exitTime = Double.POSITIVE_INFINITY;
+
+        // Test 1: 3 OBB axes (U1, U2, U3)
+        if (!sweepAxis(out, 0, r00, r01, r02, f.t0, v0, f.radius0)) return false;
+        if (!sweepAxis(out, 1, r10, r11, r12, f.t1, v1, f.radius1)) return false;
+        if (!sweepAxis(out, 2, r20, r21, r22, f.t2, v2, f.radius2)) return false;
+
+        // Test 2: 3 AABB axes (World axes X, Y, Z)
+        if (!sweepAxis(out, 3, 1.0, 0.0, 0.0, tx, motionX, f.radius3)) return false;
+        if (!sweepAxis(out, 4, 0.0, 1.0, 0.0, ty, motionY, f.radius4)) return false;
+        if (!sweepAxis(out, 5, 0.0, 0.0, 1.0, tz, motionZ, f.radius5)) return false;
+
+        // Test 3: 9 Cross-products (Ui x Xj), same world-space axes as obbAabbContact
+        if (!sweepAxis(out, 6, 0.0, r02, -r01, ty * r02 - tz * r01, motionY * r02 - motionZ * r01, f.radius6)) return false;
+        if (!sweepAxis(out, 7, -r02, 0.0, r00, tz * r00 - tx * r02, motionZ * r00 - motionX * r02, f.radius7)) return false;
+        if (!sweepAxis(out, 8, r01, -r00, 0.0, tx * r01 - ty * r00, motionX * r01 - motionY * r00, f.radius8)) return false;
+
+        if (!sweepAxis(out, 9, 0.0, r12, -r11, ty * r12 - tz * r11, motionY * r12 - motionZ * r11, f.radius9)) return false;
+        if (!sweepAxis(out, 10, -r12, 0.0, r10, tz * r10 - tx * r12, motionZ * r10 - motionX * r12, f.radius10)) return false;
+        if (!sweepAxis(out, 11, r11, -r10, 0.0, tx * r11 - ty * r10, motionX * r11 - motionY * r10, f.radius11)) return false;
+
+        if (!sweepAxis(out, 12, 0.0, r22, -r21, ty * r22 - tz * r21, motionY * r22 - motionZ * r21, f.radius12)) return false;
+        if (!sweepAxis(out, 13, -r22, 0.0, r20, tz * r20 - tx * r22, motionZ * r20 - motionX * r22, f.radius13)) return false;
+        if (!sweepAxis(out, 14, r21, -r20, 0.0, tx * r21 - ty * r20, motionX * r21 - motionY * r20, f.radius14)) return false;
+
+        if (out.time > out.exitTime || out.time > 1.0 || out.exitTime < 0.0) {
+            return false;
+        }
+        if (out.axis < 0) {
+            // Overlapping from the start (or on no usable axis): no meaningful entry normal
+            out.time = 0.0;
+            return true;
+        }
+        out.time = Math.max(out.time, 0.0);
+
+        // Leading corner of the moved box, i.e. the one facing the OBB
+        out.pointX = (out.normalX > 0 ? minX : maxX) + motionX * out.time;
+        out.pointY = (out.normalY > 0 ? minY : maxY) + motionY * out.time;
+        out.pointZ = (out.normalZ > 0 ? minZ : maxZ) + motionZ * out.time;
+        return true;
+    }
+
+    /**
+     * Swept OBB-OBB test, like {@link #obbAabbSweep} with a moving OBB B in place of the box: A
+     * stays put while B moves by {@code (motionX, motionY, motionZ)}. The normal points from A
+     * towards B; axis indices are those of {@link #obbObbContact}. The point is not set.
+     *
+     * @return true if the boxes touch at some point during the motion.
+     */
+    public static boolean obbObbSweep(double[] a, int aOff, double[] b, int bOff,
+                                      double motionX, double motionY, double motionZ,
+                                      Contact out) {
+        SatFrame f = new SatFrame().obbObb(a, aOff, b, bOff);
+        double tx = f.tx, ty = f.ty, tz = f.tz;
+
+        out.reset();
+        out.depth = 0.0;
+        out.time = Double.NEGATIVE_INFINITY;
+        out.exitTime = Double.POSITIVE_INFINITY;
+
+        // Test 1: 3 axes of A
+        if (!sweepAxis(out, 0, f.a0x, f.a0y, f.a0z, f.t0,
+                motionX * f.a0x + motionY * f.a0y + motionZ * f.a0z, f.radius0)) return false;
+        if (!sweepAxis(out, 1, f.a1x, f.a1y, f.a1z, f.t1,
+                motionX * f.a1x + motionY * f.a1y + motionZ * f.a1z, f.radius1)) return false;
+        if (!sweepAxis(out, 2, f.a2x, f.a2y, f.a2z, f.t2,
+                motionX * f.a2x + motionY * f.a2y + motionZ * f.a2z, f.radius2)) return false;
+
+        // Test 2: 3 axes of B
+        if (!sweepAxis(out, 3, f.b0x, f.b0y, f.b0z, tx * f.b0x + ty * f.b0y + tz * f.b0z,
+                motionX * f.b0x + motionY * f.b0y + motionZ * f.b0z, f.radius3)) return false;
+        if (!sweepAxis(out, 4, f.b1x, f.b1y, f.b1z, tx * f.b1x + ty * f.b1y + tz * f.b1z,
+                motionX * f.b1x + motionY * f.b1y + motionZ * f.b1z, f.radius4)) return false;
+        if (!sweepAxis(out, 5, f.b2x, f.b2y, f.b2z, tx * f.b2x + ty * f.b2y + tz * f.b2z,
+                motionX * f.b2x + motionY * f.b2y + motionZ * f.b2z, f.radius5)) return false;
+
+        // Test 3: 9 Cross-products (Ai x Bj)
+        if (!sweepCrossAxis(out, 6, f.a0x, f.a0y, f.a0z, f.b0x, f.b0y, f.b0z, tx, ty, tz, motionX, motionY, motionZ, f.radius6)) return false;
+        if (!sweepCrossAxis(out, 7, f.a0x, f.a0y, f.a0z, f.b1x, f.b1y, f.b1z, tx, ty, tz, motionX, motionY, motionZ, f.radius7)) return false;
+        if (!sweepCrossAxis(out, 8, f.a0x, f.a0y, f.a0z, f.b2x, f.b2y, f.b2z, tx, ty, tz, motionX, motionY, motionZ, f.radius8)) return false;
+
+        if (!sweepCrossAxis(out, 9, f.a1x, f.a1y, f.a1z, f.b0x, f.b0y, f.b0z, tx, ty, tz, motionX, motionY, motionZ, f.radius9)) return false;
+        if (!sweepCrossAxis(out, 10, f.a1x, f.a1y, f.a1z, f.b1x, f.b1y, f.b1z, tx, ty, tz, motionX, motionY, motionZ, f.radius10)) return false;
+        if (!sweepCrossAxis(out, 11, f.a1x, f.a1y, f.a1z, f.b2x, f.b2y, f.b2z, tx, ty, tz, motionX, motionY, motionZ, f.radius11)) return false;
+
+        if (!sweepCrossAxis(out, 12, f.a2x, f.a2y, f.a2z, f.b0x, f.b0y, f.b0z, tx, ty, tz, motionX, motionY, motionZ, f.radius12)) return false;
+        if (!sweepCrossAxis(out, 13, f.a2x, f.a2y, f.a2z, f.b1x, f.b1y, f.b1z, tx, ty, tz, motionX, motionY, motionZ, f.radius13)) return false;
+        if (!sweepCrossAxis(out, 14, f.a2x, f.a2y, f.a2z, f.b2x, f.b2y, f.b2z, tx, ty, tz, motionX, motionY, motionZ, f.radius14)) return false;
+
+        if (out.time > out.exitTime || out.time > 1.0 || out.exitTime < 0.0) {
+            return false;
+        }
+        if (out.axis < 0) {
+            out.time = 0.0;
+            return true;
+        }
+        out.time = Math.max(out.time, 0.0);
+        return true;
+    }
+
+    /**
+     * {@link #sweepAxis} for the edge-edge axis {@code u x v}, computed in world space.
+     */
+    private static boolean sweepCrossAxis(Contact out, int axis,
+                                          double ux, double uy, double uz,
+                                          double vx, double vy, double vz,
+                                          double tx, double ty, double tz,
+                                          double motionX, double motionY, double motionZ, double radius) {
+        double lx = uy * vz - uz * vy;
+        double ly = uz * vx - ux * vz;
+        double lz = ux * vy - uy * vx;
+        return sweepAxis(out, axis, lx, ly, lz, tx * lx + ty * ly + tz * lz,
+                motionX * lx + motionY * ly + motionZ * lz, radius);
+    }
+
+    /**
+     * One axis of the swept test. {@code dist} is the projected center offset at the start,
+     * {@code speed} the projected motion and {@code radius} the summed projected radii, all in units
+     * of the axis length. Narrows {@code out}'s [time, exitTime] interval to the part of the motion
+     * during which this axis overlaps, and returns false once the boxes can no longer touch.
+     */
+    private static boolean sweepAxis(Contact out, int axis, double lx, double ly, double lz,
+                                     double dist, double speed, double radius) {
+        double lengthSq = lx * lx + ly * ly + lz * lz;
+        // Degenerate cross products carry no usable direction; skipping an axis is always conservative
+        if (lengthSq < EPSILON) {
+            return true;
+        }
+
+        if (Math.abs(speed) < EPSILON * EPSILON) {
+            // No motion along this axis: it either overlaps all the time or never
+            return Math.abs(dist) <= radius;
+        }
+
+        double enter = (-radius - dist) / speed;
+        double exit = (radius - dist) / speed;
+        if (enter > exit) {
+            double swap = enter;
+            enter = exit;
+            exit = swap;
+        }
+
+        if (enter > out.time) {
+            out.time = enter;
+            if (enter > 0.0) {
+                // The gap on this axis closes last: it is the contact normal, facing against the motion
+                double sign = speed > 0 ? -1.0 / Math.sqrt(lengthSq) : 1.0 / Math.sqrt(lengthSq);
+                out.axis = axis;
+                out.normalX = lx * sign;
+                out.normalY = ly * sign;
+                out.normalZ = lz * sign;
+            }
+        }
+        out.exitTime = Math.min(out.exitTime, exit);
+        return out.time <= out.exitTime && out.time <= 1.0 && out.exitTime >= 0.0;
+    }
+
+    // --- 8. Rays and Points ---
+
+    /**
+     * Ray-OBB slab test (Ericson 5.3.3) in the OBB's local frame, for the ray
+     * {@code origin + t * dir} with {@code t} in {@code [0, maxT]}. {@code dir} does not have to
+     * be normalized; t is measured in multiples of it.
+     * <p>
+     * On a hit, {@code out.time} is the entry t (0 if the origin is inside), the normal is the
+     * outward normal of the face that was entered and {@code out.axis} the OBB axis of that face
+     * (0-2). If the origin is inside, the axis is -1 and the normal faces back along the ray.
+     * The point is where the ray enters and {@code out.depth} is 0. Performs no heap allocation.
+     *
+     * @return true if the ray enters the OBB within {@code maxT}.
+     */
+    public static boolean rayObb(double[] obb, int off,
+                                 double originX, double originY, double originZ,
+                                 double dirX, double dirY, double dirZ, double maxT,
+                                 Contact out) {
+        double px = originX - obb[off + OBB_CENTER];
+        double py = originY - obb[off + OBB_CENTER + 1];
+        double pz = originZ - obb[off + OBB_CENTER + 2];
+
+        double enter = 0.0;
+        double exit = maxT;
+        int enterAxis = -1;
+        double enterSign = 0.0;
+        for (int i = 0; i < 3; i++) {
+            int axis = off + OBB_AXES + i * 3;
+            double ux = obb[axis], uy = obb[axis + 1], uz = obb[axis + 2];
+            double extent = obb[off + OBB_HALF_EXTENTS + i];
+            double p = px * ux + py * uy + pz * uz;
+            double d = dirX * ux + dirY * uy + dirZ * uz;
+
+            if (Math.abs(d) < EPSILON * EPSILON) {
+                // Parallel to this slab: misses unless it already lies between the faces
+                if (Math.abs(p) > extent) {
+                    return false;
                 }
+                continue;
+            }
+
+            double inv = 1.0 / d;
+            double near = (-extent - p) * inv;
+            double far = (extent - p) * inv;
+            // Moving along +U enters through the -U face, and the other way round
+            double sign = -1.0;
+            if (near > far) {
+                double swap = near;
+                near = far;
+                far = swap;
+                sign = 1.0;
+            }
+            if (near > enter) {
+                enter = near;
+                enterAxis = i;
+                enterSign = sign;
+            }
+            exit = Math.min(exit, far);
+            if (enter > exit) {
+                return false;
             }
         }
 
-        // If no separating axis was found, they must intersect.
+        out.reset();
+        out.depth = 0.0;
+        out.time = enter;
+        out.axis = enterAxis;
+        if (enterAxis >= 0) {
+            int axis = off + OBB_AXES + enterAxis * 3;
+            out.normalX = obb[axis] * enterSign;
+            out.normalY = obb[axis + 1] * enterSign;
+            out.normalZ = obb[axis + 2] * enterSign;
+        } else {
+            double invLength = 1.0 / Math.sqrt(dirX * dirX + dirY * dirY + dirZ * dirZ);
+            out.normalX = -dirX * invLength;
+            out.normalY = -dirY * invLength;
+            out.normalZ = -dirZ * invLength;
+        }
+        out.pointX = originX + dirX * enter;
+        out.pointY = originY + dirY * enter;
+        out.pointZ = originZ + dirZ * enter;
+        return true;
+    }
+
+    /**
+     * Whether a point lies inside (or on the surface of) a packed OBB.
+     */
+    public static boolean obbContainsPoint(double[] obb, int off, double x, double y, double z) {
+        double px = x - obb[off + OBB_CENTER];
+        double py = y - obb[off + OBB_CENTER + 1];
+        double pz = z - obb[off + OBB_CENTER + 2];
+        for (int i = 0; i < 3; i++) {
+            int axis = off + OBB_AXES + i * 3;
+            double p = px * obb[axis] + py * obb[axis + 1] + pz * obb[axis + 2];
+            if (Math.abs(p) > obb[off + OBB_HALF_EXTENTS + i]) {
+                return false;
+            }
+        }
         return true;
     }
-}
\ No newline at end of file
+}
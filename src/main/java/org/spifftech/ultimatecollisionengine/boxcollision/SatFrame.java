@@ -0,0 +1,171 @@
+package org.spifftech.ultimatecollisionengine.boxcollision;
+
+import static org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper.OBB_AXES;
+import static org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper.OBB_CENTER;
+import static org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper.OBB_HALF_EXTENTS;
+
+/**
+ * The set-up shared by every 15-axis SAT kernel in {@link SatCollisionHelper}: the half extents
+ * of both boxes, the rotation matrix R[i][j] = Ai . Bj between them and its epsilon-padded absolute
+ * value, the center offset, and the summed projected radii on all 15 axes. The kernels only add
+ * the per-axis distance and what they do with it (early-out, MTV, sweep interval).
+ * <p>
+ * For an OBB against an AABB, B's axes are the world axes, so R is simply the OBB's axes.
+ * A frame is created per kernel call; it never escapes, so the JIT keeps its fields in registers
+ * instead of allocating it.
+ */
+final class SatFrame {
+
+    // Half extents of A (the OBB) and B (the AABB or second OBB)
+    double a0, a1, a2;
+    double b0, b1, b2;
+
+    // A's axes in world space
+    double a0x, a0y, a0z, a1x, a1y, a1z, a2x, a2y, a2z;
+    // B's axes in world space; the world axes for an AABB
+    double b0x, b0y, b0z, b1x, b1y, b1z, b2x, b2y, b2z;
+
+    // R[i][j] = Ai . Bj, and |R[i][j]| + EPSILON
+    double r00, r01, r02, r10, r11, r12, r20, r21, r22;
+    double q00, q01, q02, q10, q11, q12, q20, q21, q22;
+
+    // Vector from A's center to B's center, in world space and in A's frame
+    double tx, ty, tz;
+    double t0, t1, t2;
+
+    // Summed projected radii, indexed like the axes: 0-2 A's axes, 3-5 B's axes, 6-14 Ai x Bj
+    double radius0, radius1, radius2, radius3, radius4, radius5, radius6, radius7, radius8;
+    double radius9, radius10, radius11, radius12, radius13, radius14;
+
+    /**
+     * Sets up a packed OBB (A) against an AABB (B).
+     */
+    SatFrame obbAabb(double[] obb, int off,
+                     double minX, double minY, double minZ,
+                     double maxX, double maxY, double maxZ) {
+        b0 = (maxX - minX) * 0.5;
+        b1 = (maxY - minY) * 0.5;
+        b2 = (maxZ - minZ) * 0.5;
+        tx = (minX + maxX) * 0.5 - obb[off + OBB_CENTER];
+        ty = (minY + maxY) * 0.5 - obb[off + OBB_CENTER + 1];
+        tz = (minZ + maxZ) * 0.5 - obb[off + OBB_CENTER + 2];
+
+        a0 = obb[off + OBB_HALF_EXTENTS];
+        a1 = obb[off + OBB_HALF_EXTENTS + 1];
+        a2 = obb[off + OBB_HALF_EXTENTS + 2];
+        int ax = off + OBB_AXES;
+        r00 = a0x = obb[ax];
+        r01 = a0y = obb[ax + 1];
+        r02 = a0z = obb[ax + 2];
+        r10 = a1x = obb[ax + 3];
+        r11 = a1y = obb[ax + 4];
+        r12 = a1z = obb[ax + 5];
+        r20 = a2x = obb[ax + 6];
+        r21 = a2y = obb[ax + 7];
+        r22 = a2z = obb[ax + 8];
+        b0x = 1.0;
+        b1y = 1.0;
+        b2z = 1.0;
+
+        finish();
+        return this;
+    }
+
+    /**
+     * Sets up two packed OBBs, A and B.
+     */
+    SatFrame obbObb(double[] a, int aOff, double[] b, int bOff) {
+        a0 = a[aOff + OBB_HALF_EXTENTS];
+        a1 = a[aOff + OBB_HALF_EXTENTS + 1];
+        a2 = a[aOff + OBB_HALF_EXTENTS + 2];
+        b0 = b[bOff + OBB_HALF_EXTENTS];
+        b1 = b[bOff + OBB_HALF_EXTENTS + 1];
+        b2 = b[bOff + OBB_HALF_EXTENTS + 2];
+
+        int aa = aOff + OBB_AXES;
+        a0x = a[aa]; a0y = a[aa + 1]; a0z = a[aa + 2];
+        a1x = a[aa + 3]; a1y = a[aa + 4]; a1z = a[aa + 5];
+        a2x = a[aa + 6]; a2y = a[aa + 7]; a2z = a[aa + 8];
+        axesOfB(b, bOff + OBB_AXES);
+
+        tx = b[bOff + OBB_CENTER] - a[aOff + OBB_CENTER];
+        ty = b[bOff + OBB_CENTER + 1] - a[aOff + OBB_CENTER + 1];
+        tz = b[bOff + OBB_CENTER + 2] - a[aOff + OBB_CENTER + 2];
+
+        rotation();
+        finish();
+        return this;
+    }
+
+    private void axesOfB(double[] b, int ba) {
+        b0x = b[ba]; b0y = b[ba + 1]; b0z = b[ba + 2];
+        b1x = b[ba + 3]; b1y = b[ba + 4]; b1z = b[ba + 5];
+        b2x = b[ba + 6]; b2y = b[ba + 7]; b2z = b[ba + 8];
+    }
+
+    // Rotation matrix expressing B in A's frame
+    private void rotation() {
+        r00 = a0x * b0x + a0y * b0y + a0z * b0z;
+        r01 = a0x * b1x + a0y * b1y + a0z * b1z;
+        r02 = a0x * b2x + a0y * b2y + a0z * b2z;
+        r10 = a1x * b0x + a1y * b0y + a1z * b0z;
+        r11 = a1x * b1x + a1y * b1y + a1z * b1z;
+        r12 = a1x * b2x + a1y * b2y + a1z * b2z;
+        r20 = a2x * b0x + a2y * b0y + a2z * b0z;
+        r21 = a2x * b1x + a2y * b1y + a2z * b1z;
+        r22 = a2x * b2x + a2y * b2y + a2z * b2z;
+    }
+
+    /**
+     * The part both set-ups share: |R| with epsilon, the offset in A's frame and all 15 radii.
+     * Split into small methods so each stays under the JIT's inlining limit; once everything is
+     * inlined the frame is scalar-replaced and the kernels allocate nothing.
+     */
+    private void finish() {
+        padRotation();
+        faceRadii();
+        crossRadiiA0();
+        crossRadiiA1();
+        crossRadiiA2();
+    }
+
+    private void padRotation() {
+        q00 = SatCollisionHelper.pad(r00); q01 = SatCollisionHelper.pad(r01); q02 = SatCollisionHelper.pad(r02);
+        q10 = SatCollisionHelper.pad(r10); q11 = SatCollisionHelper.pad(r11); q12 = SatCollisionHelper.pad(r12);
+        q20 = SatCollisionHelper.pad(r20); q21 = SatCollisionHelper.pad(r21); q22 = SatCollisionHelper.pad(r22);
+
+        t0 = tx * a0x + ty * a0y + tz * a0z;
+        t1 = tx * a1x + ty * a1y + tz * a1z;
+        t2 = tx * a2x + ty * a2y + tz * a2z;
+    }
+
+    // Radii on the 3 axes of A and the 3 axes of B
+    private void faceRadii() {
+        radius0 = a0 + b0 * q00 + b1 * q01 + b2 * q02;
+        radius1 = a1 + b0 * q10 + b1 * q11 + b2 * q12;
+        radius2 = a2 + b0 * q20 + b1 * q21 + b2 * q22;
+
+        radius3 = a0 * q00 + a1 * q10 + a2 * q20 + b0;
+        radius4 = a0 * q01 + a1 * q11 + a2 * q21 + b1;
+        radius5 = a0 * q02 + a1 * q12 + a2 * q22 + b2;
+    }
+
+    // Radii on the edge-edge axes A0 x Bj, A1 x Bj and A2 x Bj
+    private void crossRadiiA0() {
+        radius6 = a1 * q20 + a2 * q10 + b1 * q02 + b2 * q01;
+        radius7 = a1 * q21 + a2 * q11 + b0 * q02 + b2 * q00;
+        radius8 = a1 * q22 + a2 * q12 + b0 * q01 + b1 * q00;
+    }
+
+    private void crossRadiiA1() {
+        radius9 = a0 * q20 + a2 * q00 + b1 * q12 + b2 * q11;
+        radius10 = a0 * q21 + a2 * q01 + b0 * q12 + b2 * q10;
+        radius11 = a0 * q22 + a2 * q02 + b0 * q11 + b1 * q10;
+    }
+
+    private void crossRadiiA2() {
+        radius12 = a0 * q10 + a1 * q00 + b1 * q22 + b2 * q21;
+        radius13 = a0 * q11 + a1 * q01 + b0 * q22 + b2 * q20;
+        radius14 = a0 * q12 + a1 * q02 + b0 * q21 + b1 * q20;
+    }
+}
@@ -0,0 +1,110 @@
+package org.spifftech.ultimatecollisionengine.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import org.spifftech.ultimatecollisionengine.engine.CollisionEngine;
+import org.spifftech.ultimatecollisionengine.engine.CollisionMetrics;
+import org.spifftech.ultimatecollisionengine.engine.trace.CollisionTraceWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The {@code /uce} operator command.
+ * <ul>
+ *     <li>{@code /uce stats} prints the collision metrics since the last reset</li>
+ *     <li>{@code /uce stats reset} clears them</li>
+ *     <li>{@code /uce stats dump [json|csv]} writes them to a file in the server's run directory</li>
+ *     <li>{@code /uce trace start [ticks]} records a collision trace of the current world (see
+ *     {@code CollisionTrace}) for that many ticks, 600 by default</li>
+ *     <li>{@code /uce trace stop} finishes it early</li>
+ * </ul>
+ */
+public final class UceCommand {
+
+    private static final int DEFAULT_TRACE_TICKS = 600; // 30 seconds
+    private static final int MAX_TRACE_TICKS = 72000;   // One hour
+
+    private UceCommand() {
+    }
+
+    public static void register() {
+        CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> register(dispatcher));
+    }
+
+    private static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+        dispatcher.register(CommandManager.literal("uce")
+                .requires(source -> source.hasPermissionLevel(2))
+                .then(CommandManager.literal("stats")
+                        .executes(UceCommand::printStats)
+                        .then(CommandManager.literal("reset")
+                                .executes(UceCommand::resetStats))
+                        .then(CommandManager.literal("dump")
+                                .executes(context -> dumpStats(context, false))
+                                .then(CommandManager.literal("json")
+                                        .executes(context -> dumpStats(context, false)))
+                                .then(CommandManager.literal("csv")
+                                        .executes(context -> dumpStats(context, true)))))
+                .then(CommandManager.literal("trace")
+                        .then(CommandManager.literal("start")
+                                .executes(context -> startTrace(context, DEFAULT_TRACE_TICKS))
+                                .then(CommandManager.argument("ticks", IntegerArgumentType.integer(1, MAX_TRACE_TICKS))
+                                        .executes(context -> startTrace(context, IntegerArgumentType.getInteger(context, "ticks")))))
+                        .then(CommandManager.literal("stop")
+                                .executes(UceCommand::stopTrace))));
+    }
+
+    private static int printStats(CommandContext<ServerCommandSource> context) {
+        for (String line : CollisionMetrics.summary()) {
+            context.getSource().sendFeedback(() -> Text.literal(line), false);
+        }
+        return 1;
+    }
+
+    private static int resetStats(CommandContext<ServerCommandSource> context) {
+        CollisionMetrics.reset();
+        context.getSource().sendFeedback(() -> Text.literal("Collision stats reset"), true);
+        return 1;
+    }
+
+    private static int dumpStats(CommandContext<ServerCommandSource> context, boolean csv) {
+        ServerCommandSource source = context.getSource();
+        try {
+            Path file = CollisionMetrics.dump(source.getServer().getRunDirectory().toPath(), csv);
+            source.sendFeedback(() -> Text.literal("Collision stats written to " + file), false);
+            return 1;
+        } catch (IOException e) {
+            source.sendError(Text.literal("Could not write collision stats: " + e.getMessage()));
+            return 0;
+        }
+    }
+
+    private static int startTrace(CommandContext<ServerCommandSource> context, int ticks) {
+        ServerCommandSource source = context.getSource();
+        try {
+            Path file = CollisionEngine.startTrace(source.getWorld(), ticks);
+            source.sendFeedback(() -> Text.literal("Recording " + ticks + " ticks of collisions to " + file), true);
+            return 1;
+        } catch (IOException e) {
+            source.sendError(Text.literal("Could not start collision trace: " + e.getMessage()));
+            return 0;
+        }
+    }
+
+    private static int stopTrace(CommandContext<ServerCommandSource> context) {
+        ServerCommandSource source = context.getSource();
+        CollisionTraceWriter trace = CollisionEngine.stopTrace(source.getWorld());
+        if (trace == null) {
+            source.sendError(Text.literal("No collision trace is running in this world"));
+            return 0;
+        }
+        source.sendFeedback(() -> Text.literal("Collision trace of " + trace.getTicks() + " ticks ("
+                + trace.getPairs() + " pairs) written to " + trace.getFile()), true);
+        return 1;
+    }
+}
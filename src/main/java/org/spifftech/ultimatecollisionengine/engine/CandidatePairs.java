@@ -0,0 +1,86 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+import net.minecraft.entity.Entity;
+
+import java.util.Arrays;
+
+/**
+ * Output of the broad phase: (collider, entity) candidate pairs.
+ * Pairs are appended in whatever order the broad phase finds them, then {@link #group}ed by
+ * collider so the narrow phase can run each collider over one contiguous run of entities.
+ */
+public class CandidatePairs {
+
+    private int[] colliders = new int[64];
+    private Entity[] entities = new Entity[64];
+    private int size;
+
+    // Grouped view, filled by group(): entities of collider i are grouped[start[i] .. start[i + 1])
+    private Entity[] grouped = new Entity[64];
+    private int[] start = new int[17];
+
+    public void add(int collider, Entity entity) {
+        if (size == colliders.length) {
+            colliders = Arrays.copyOf(colliders, size * 2);
+            entities = Arrays.copyOf(entities, size * 2);
+        }
+        colliders[size] = collider;
+        entities[size] = entity;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Counting sort of the pairs by collider index. Stable, so entities keep the order in
+     * which the broad phase found them.
+     */
+    public void group(int colliderCount) {
+        if (start.length < colliderCount + 1) {
+            start = new int[Math.max(colliderCount + 1, start.length * 2)];
+        } else {
+            Arrays.fill(start, 0, colliderCount + 1, 0);
+        }
+        if (grouped.length < size) {
+            grouped = new Entity[Math.max(size, grouped.length * 2)];
+        }
+
+        for (int i = 0; i < size; i++) {
+            start[colliders[i] + 1]++;
+        }
+        for (int i = 0; i < colliderCount; i++) {
+            start[i + 1] += start[i];
+        }
+        // Scatter, using start[collider] as a write cursor, then shift the cursors back
+        for (int i = 0; i < size; i++) {
+            grouped[start[colliders[i]]++] = entities[i];
+        }
+        for (int i = colliderCount; i > 0; i--) {
+            start[i] = start[i - 1];
+        }
+        start[0] = 0;
+    }
+
+    public int start(int collider) {
+        return start[collider];
+    }
+
+    public int end(int collider) {
+        return start[collider + 1];
+    }
+
+    public Entity get(int groupedIndex) {
+        return grouped[groupedIndex];
+    }
+
+    /**
+     * Drops all pairs, clearing references so unloaded entities are not kept alive.
+     */
+    public void clear() {
+        Arrays.fill(entities, 0, size, null);
+        Arrays.fill(grouped, 0, size, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,14 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+/**
+ * Implemented on {@code WorldChunk} by a mixin: a per-section counter that is bumped every time
+ * a block in the section changes. Caches of terrain shapes remember the revision they were
+ * built from and only re-read the world when it moves on.
+ * <p>
+ * Revisions start at 0 for every newly loaded chunk, so callers must also check they are still
+ * looking at the same chunk instance.
+ */
+public interface ChunkSectionRevisions {
+
+    int uce$getSectionRevision(int sectionIndex);
+}
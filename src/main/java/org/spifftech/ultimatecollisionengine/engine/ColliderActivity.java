@@ -0,0 +1,73 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/**
+ * Sleep state of one collider, owned by its {@link CollisionWorld}.
+ * <p>
+ * A collider that has had no candidates for {@link CollisionWorld#DORMANT_AFTER_TICKS} ticks is put
+ * to sleep: it leaves the per-tick pass entirely and only checks {@link #shouldWake} (a flag and
+ * a position compare) each tick. It is woken by an entity entering one of its
+ * {@link #getWatchedSections() watched chunk sections}, by another collider reaching it, or by
+ * moving itself.
+ */
+public class ColliderActivity {
+
+    private int idleTicks;
+    private boolean dormant;
+    private boolean wakeRequested;
+    private double sleepX, sleepY, sleepZ;
+    private final LongArrayList watchedSections = new LongArrayList();
+
+    public boolean isDormant() {
+        return dormant;
+    }
+
+    /**
+     * Counts one tick without candidates.
+     *
+     * @return the number of such ticks in a row.
+     */
+    public int idle() {
+        return ++idleTicks;
+    }
+
+    public void busy() {
+        idleTicks = 0;
+    }
+
+    public void sleep(double x, double y, double z) {
+        dormant = true;
+        wakeRequested = false;
+        sleepX = x;
+        sleepY = y;
+        sleepZ = z;
+    }
+
+    public void wake() {
+        dormant = false;
+        wakeRequested = false;
+        idleTicks = 0;
+    }
+
+    /**
+     * Asks a dormant collider to rejoin the pass on its next tick.
+     */
+    public void requestWake() {
+        wakeRequested = true;
+    }
+
+    /**
+     * The per-tick check of a dormant collider: woken by someone else, or moved since it fell asleep.
+     */
+    public boolean shouldWake(double x, double y, double z) {
+        return wakeRequested || x != sleepX || y != sleepY || z != sleepZ;
+    }
+
+    /**
+     * Packed chunk section positions this collider is listed under while dormant.
+     */
+    public LongArrayList getWatchedSections() {
+        return watchedSections;
+    }
+}
@@ -0,0 +1,211 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMaps;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.util.math.Box;
+import net.minecraft.world.World;
+import org.spifftech.ultimatecollisionengine.boxcollision.ColliderMotion;
+import org.spifftech.ultimatecollisionengine.boxcollision.ColliderShape;
+import org.spifftech.ultimatecollisionengine.entity.CustomCollisionEntity;
+
+import java.util.List;
+
+/**
+ * Every loaded collider of one world (server or client), hashed by its spin bounds so entity
+ * movement can find the colliders near it without scanning entity sections. The spin bounds do
+ * not change as a collider turns, so only colliders that moved or changed shape are re-bucketed
+ * by {@link #refresh()}.
+ * <p>
+ * The index lives on the {@link World} itself (see {@code WorldMixin}) and is filled from the
+ * entity load/unload events of each side. It is not thread-safe: use it from the world's own thread.
+ */
+public class ColliderIndex {
+
+    private final ColliderSpatialHash<CustomCollisionEntity> hash = new ColliderSpatialHash<>();
+    private final Reference2ObjectOpenHashMap<CustomCollisionEntity, Entry> entries = new Reference2ObjectOpenHashMap<>();
+    // Written to Handle.id by ray traversals, so a collider listed in several cells is visited once
+    private int rayStamp;
+
+    /**
+     * Called by {@link #traverseRay} for each collider the ray may hit.
+     */
+    @FunctionalInterface
+    public interface RayVisitor {
+        /**
+         * @param maxT the nearest hit so far, or the ray's length if there is none.
+         * @return the nearest hit now, i.e. {@code maxT} if this collider was not hit nearer.
+         */
+        double visit(CustomCollisionEntity collider, double maxT);
+    }
+
+    /**
+     * The index of a world. Every world has one, even if it holds no colliders.
+     */
+    public static ColliderIndex of(World world) {
+        return ((ColliderIndexHolder) world).uce$getColliderIndex();
+    }
+
+    public void add(CustomCollisionEntity collider) {
+        if (!entries.containsKey(collider)) {
+            Entry entry = new Entry(hash.insert(collider, collider.getSpinBounds()));
+            entry.remember(collider);
+            entries.put(collider, entry);
+        }
+    }
+
+    public void remove(CustomCollisionEntity collider) {
+        Entry entry = entries.remove(collider);
+        if (entry != null) {
+            hash.remove(entry.handle);
+        }
+    }
+
+    /**
+     * Re-buckets the colliders that moved or changed shape since the last refresh.
+     * Call once per tick, after entities have ticked.
+     */
+    public void refresh() {
+        for (Reference2ObjectMap.Entry<CustomCollisionEntity, Entry> e : Reference2ObjectMaps.fastIterable(entries)) {
+            CustomCollisionEntity collider = e.getKey();
+            Entry entry = e.getValue();
+            if (entry.changed(collider)) {
+                hash.update(entry.handle, collider.getSpinBounds());
+                entry.remember(collider);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Adds every collider whose spin bounds intersect {@code box} to {@code out}, each once.
+     */
+    public void query(Box box, List<CustomCollisionEntity> out) {
+        hash.query(box, handle -> out.add(handle.value));
+    }
+
+    /**
+     * Walks the ray {@code origin + t * dir}, {@code t} in {@code [0, maxT]}, through the hash's
+     * cells in order (a 3D DDA, Amanatides and Woo) and hands every collider whose spin bounds it
+     * passes through to {@code visitor}, each once. Stops at the first cell that starts beyond the
+     * nearest hit reported so far, so a long ray that hits something close never looks further.
+     */
+    public void traverseRay(double originX, double originY, double originZ,
+                            double dirX, double dirY, double dirZ, double maxT, RayVisitor visitor) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        int stamp = ++rayStamp;
+        double size = ColliderSpatialHash.CELL_SIZE;
+
+        int x = ColliderSpatialHash.cellCoord(originX);
+        int y = ColliderSpatialHash.cellCoord(originY);
+        int z = ColliderSpatialHash.cellCoord(originZ);
+        int stepX = dirX > 0 ? 1 : -1;
+        int stepY = dirY > 0 ? 1 : -1;
+        int stepZ = dirZ > 0 ? 1 : -1;
+        // Ray t at which the next cell boundary is crossed on each axis, and t per whole cell
+        double nextX = dirX == 0 ? Double.POSITIVE_INFINITY : ((x + (dirX > 0 ? 1 : 0)) * size - originX) / dirX;
+        double nextY = dirY == 0 ? Double.POSITIVE_INFINITY : ((y + (dirY > 0 ? 1 : 0)) * size - originY) / dirY;
+        double nextZ = dirZ == 0 ? Double.POSITIVE_INFINITY : ((z + (dirZ > 0 ? 1 : 0)) * size - originZ) / dirZ;
+        double deltaX = dirX == 0 ? Double.POSITIVE_INFINITY : size / Math.abs(dirX);
+        double deltaY = dirY == 0 ? Double.POSITIVE_INFINITY : size / Math.abs(dirY);
+        double deltaZ = dirZ == 0 ? Double.POSITIVE_INFINITY : size / Math.abs(dirZ);
+
+        double best = maxT;
+        while (true) {
+            List<ColliderSpatialHash.Handle<CustomCollisionEntity>> cell = hash.getCell(x, y, z);
+            if (cell != null) {
+                for (int i = 0, n = cell.size(); i < n; i++) {
+                    ColliderSpatialHash.Handle<CustomCollisionEntity> handle = cell.get(i);
+                    if (handle.id == stamp) {
+                        continue;
+                    }
+                    handle.id = stamp;
+                    if (rayHitsBox(handle.getBounds(), originX, originY, originZ, dirX, dirY, dirZ, best)) {
+                        best = visitor.visit(handle.value, best);
+                    }
+                }
+            }
+
+            // Step into whichever neighbouring cell the ray reaches first
+            if (nextX <= nextY && nextX <= nextZ) {
+                if (nextX > best) {
+                    return;
+                }
+                x += stepX;
+                nextX += deltaX;
+            } else if (nextY <= nextZ) {
+                if (nextY > best) {
+                    return;
+                }
+                y += stepY;
+                nextY += deltaY;
+            } else {
+                if (nextZ > best) {
+                    return;
+                }
+                z += stepZ;
+                nextZ += deltaZ;
+            }
+        }
+    }
+
+    /**
+     * Slab test of the ray against an AABB.
+     */
+    private static boolean rayHitsBox(Box box, double originX, double originY, double originZ,
+                                      double dirX, double dirY, double dirZ, double maxT) {
+        double enter = 0.0, exit = maxT;
+        if (dirX != 0) {
+            double a = (box.minX - originX) / dirX, b = (box.maxX - originX) / dirX;
+            enter = Math.max(enter, Math.min(a, b));
+            exit = Math.min(exit, Math.max(a, b));
+        } else if (originX < box.minX || originX > box.maxX) {
+            return false;
+        }
+        if (dirY != 0) {
+            double a = (box.minY - originY) / dirY, b = (box.maxY - originY) / dirY;
+            enter = Math.max(enter, Math.min(a, b));
+            exit = Math.min(exit, Math.max(a, b));
+        } else if (originY < box.minY || originY > box.maxY) {
+            return false;
+        }
+        if (dirZ != 0) {
+            double a = (box.minZ - originZ) / dirZ, b = (box.maxZ - originZ) / dirZ;
+            enter = Math.max(enter, Math.min(a, b));
+            exit = Math.min(exit, Math.max(a, b));
+        } else if (originZ < box.minZ || originZ > box.maxZ) {
+            return false;
+        }
+        return enter <= exit;
+    }
+
+    private static final class Entry {
+        final ColliderSpatialHash.Handle<CustomCollisionEntity> handle;
+        // What the bucketed bounds were computed from
+        double x, y, z;
+        ColliderShape shape;
+        ColliderMotion motion;
+
+        Entry(ColliderSpatialHash.Handle<CustomCollisionEntity> handle) {
+            this.handle = handle;
+        }
+
+        boolean changed(CustomCollisionEntity collider) {
+            return collider.getX() != x || collider.getY() != y || collider.getZ() != z
+                    || collider.getShape() != shape || collider.getMotion() != motion;
+        }
+
+        void remember(CustomCollisionEntity collider) {
+            x = collider.getX();
+            y = collider.getY();
+            z = collider.getZ();
+            shape = collider.getShape();
+            motion = collider.getMotion();
+        }
+    }
+}
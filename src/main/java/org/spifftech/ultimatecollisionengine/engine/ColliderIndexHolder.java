@@ -0,0 +1,10 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+/**
+ * Implemented by {@code World} through {@code WorldMixin}; use {@link ColliderIndex#of} instead of
+ * casting directly.
+ */
+public interface ColliderIndexHolder {
+
+    ColliderIndex uce$getColliderIndex();
+}
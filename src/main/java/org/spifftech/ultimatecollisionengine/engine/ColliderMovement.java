@@ -0,0 +1,185 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.world.World;
+import org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper;
+import org.spifftech.ultimatecollisionengine.entity.CustomCollisionEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clips an entity's movement against nearby colliders inside {@code Entity.move}, right after
+ * vanilla has clipped it against blocks (see {@code EntityMixin}).
+ * <p>
+ * This runs wherever the entity is moved: on the server, and on the client for the local player
+ * and anything else it simulates. The client therefore stops at a collider by itself, the same
+ * way it stops at a wall, instead of walking in and being teleported back out by the server.
+ * Colliders that move or turn into a standing entity are still handled by the
+ * {@link CollisionWorld} pass after the tick.
+ */
+public final class ColliderMovement {
+
+    // A slide can hit another part (or collider) after turning, e.g. in an inside corner
+    private static final int MAX_SLIDES = 3;
+    // Stop this far short of the impact, so the next move does not start touching the collider
+    private static final double SKIN = 1.0E-4;
+    private static final double MIN_MOVE_SQ = 1.0E-14;
+
+    // Entity movement runs on the server thread and the client thread of the same JVM
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private ColliderMovement() {
+    }
+
+    /**
+     * The movement an entity can make from its current bounding box without entering a collider.
+     *
+     * @param movement the movement already clipped against blocks.
+     * @return {@code movement} itself if no collider is in the way.
+     */
+    public static Vec3d clip(Entity entity, Vec3d movement) {
+        if (entity instanceof CustomCollisionEntity || entity.noClip || movement.lengthSquared() < MIN_MOVE_SQ) {
+            return movement;
+        }
+        ColliderIndex index = ColliderIndex.of(entity.getWorld());
+        if (index.isEmpty()) {
+            return movement;
+        }
+
+        Box box = entity.getBoundingBox();
+        Scratch scratch = SCRATCH.get();
+        List<CustomCollisionEntity> nearby = scratch.nearby;
+        nearby.clear();
+        index.query(box.stretch(movement).expand(SKIN), nearby);
+        if (nearby.isEmpty()) {
+            return movement;
+        }
+        for (int i = 0, n = nearby.size(); i < n; i++) {
+            nearby.get(i).updateTransform();
+        }
+
+        SatCollisionHelper.Contact hit = scratch.hit;
+        double mx = movement.x, my = movement.y, mz = movement.z;
+        double doneX = 0.0, doneY = 0.0, doneZ = 0.0;
+        boolean clipped = false;
+        for (int slide = 0; slide <= MAX_SLIDES; slide++) {
+            double minX = box.minX + doneX, minY = box.minY + doneY, minZ = box.minZ + doneZ;
+            double maxX = box.maxX + doneX, maxY = box.maxY + doneY, maxZ = box.maxZ + doneZ;
+
+            boolean hasHit = false;
+            for (int i = 0, n = nearby.size(); i < n; i++) {
+                hasHit |= nearby.get(i).movementContact(minX, minY, minZ, maxX, maxY, maxZ,
+                        mx, my, mz, hasHit, hit);
+            }
+            if (!hasHit) {
+                doneX += mx;
+                doneY += my;
+                doneZ += mz;
+                break;
+            }
+            clipped = true;
+
+            // Move up to the impact, then slide the rest along the contact plane
+            double t = advance(hit.time, mx, my, mz);
+            doneX += mx * t;
+            doneY += my * t;
+            doneZ += mz * t;
+            if (slide == MAX_SLIDES) {
+                // Out of slides: stop at the last impact instead of risking a way in
+                break;
+            }
+            mx *= 1.0 - t;
+            my *= 1.0 - t;
+            mz *= 1.0 - t;
+            double into = mx * hit.normalX + my * hit.normalY + mz * hit.normalZ;
+            if (into < 0.0) {
+                mx -= hit.normalX * into;
+                my -= hit.normalY * into;
+                mz -= hit.normalZ * into;
+            }
+            if (mx * mx + my * my + mz * mz < MIN_MOVE_SQ) {
+                break;
+            }
+        }
+
+        if (!clipped) {
+            return movement;
+        }
+        // Sliding can turn the move towards blocks and solid entities (boats, shulkers) vanilla did
+        // not check it against. Their shapes are gathered the way the instance method does; the
+        // static overload adds the world border and the blocks itself.
+        Vec3d slid = new Vec3d(doneX, doneY, doneZ);
+        List<VoxelShape> entityShapes = entity.getWorld().getEntityCollisions(entity, box.stretch(slid));
+        Vec3d reclipped = Entity.adjustMovementForCollisions(entity, slid, box, entity.getWorld(), entityShapes);
+        return stepUp(entity, slid, reclipped, box, entityShapes, index, scratch);
+    }
+
+    /**
+     * The step-up of the instance {@code adjustMovementForCollisions}, which the static overload
+     * used for the re-clip leaves out: an entity on the ground whose slid move ran into a block
+     * tries to climb it by its step height. The stepped move is only taken if no collider is in
+     * its way, since the blocks are all it was clipped against.
+     */
+    private static Vec3d stepUp(Entity entity, Vec3d movement, Vec3d clipped, Box box,
+                                List<VoxelShape> entityShapes, ColliderIndex index, Scratch scratch) {
+        float stepHeight = entity.getStepHeight();
+        boolean blockedSideways = movement.x != clipped.x || movement.z != clipped.z;
+        boolean grounded = entity.isOnGround() || movement.y != clipped.y && movement.y < 0.0;
+        if (stepHeight <= 0.0f || !blockedSideways || !grounded) {
+            return clipped;
+        }
+
+        // Same candidates as vanilla: step up with the move, or rise first and then move across
+        World world = entity.getWorld();
+        Vec3d stepped = Entity.adjustMovementForCollisions(entity,
+                new Vec3d(movement.x, stepHeight, movement.z), box, world, entityShapes);
+        Vec3d rise = Entity.adjustMovementForCollisions(entity,
+                new Vec3d(0.0, stepHeight, 0.0), box.stretch(movement.x, 0.0, movement.z), world, entityShapes);
+        if (rise.y < stepHeight) {
+            Vec3d across = Entity.adjustMovementForCollisions(entity,
+                    new Vec3d(movement.x, 0.0, movement.z), box.offset(rise), world, entityShapes).add(rise);
+            if (across.horizontalLengthSquared() > stepped.horizontalLengthSquared()) {
+                stepped = across;
+            }
+        }
+        if (stepped.horizontalLengthSquared() <= clipped.horizontalLengthSquared()) {
+            return clipped;
+        }
+        stepped = stepped.add(Entity.adjustMovementForCollisions(entity,
+                new Vec3d(0.0, movement.y - stepped.y, 0.0), box.offset(stepped), world, entityShapes));
+
+        // The climb reaches above the region the slide looked at. The stepped move is swept in one
+        // straight line from start to end, not as its separate rise, move and drop.
+        List<CustomCollisionEntity> nearby = scratch.nearby;
+        nearby.clear();
+        index.query(box.stretch(stepped).stretch(0.0, stepHeight, 0.0).expand(SKIN), nearby);
+        boolean hasHit = false;
+        for (int i = 0, n = nearby.size(); i < n; i++) {
+            CustomCollisionEntity collider = nearby.get(i);
+            collider.updateTransform();
+            hasHit |= collider.movementContact(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ,
+                    stepped.x, stepped.y, stepped.z, hasHit, scratch.hit);
+        }
+        return hasHit ? clipped : stepped;
+    }
+
+    /**
+     * How far along a move to go before an impact at {@code time}, backed off by {@link #SKIN}.
+     */
+    private static double advance(double time, double mx, double my, double mz) {
+        if (time <= 0.0) {
+            return 0.0;
+        }
+        double length = Math.sqrt(mx * mx + my * my + mz * mz);
+        return Math.max(0.0, time - SKIN / length);
+    }
+
+    private static final class Scratch {
+        final List<CustomCollisionEntity> nearby = new ArrayList<>();
+        final SatCollisionHelper.Contact hit = new SatCollisionHelper.Contact();
+    }
+}
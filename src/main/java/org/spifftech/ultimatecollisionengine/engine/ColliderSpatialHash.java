@@ -0,0 +1,236 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterable;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Spatial hash of collider bounds, bucketed into 16-block cells that line up with chunk sections.
+ * Values are inserted once and then moved with {@link #update}; the map is only touched when
+ * the range of cells covered by a value's bounds changes, so static colliders cost nothing.
+ * <p>
+ * A value whose bounds span several cells is listed in each of them. Callers that visit
+ * every cell should use {@link #isOwnerCell} to handle each overlap exactly once.
+ */
+public class ColliderSpatialHash<T> {
+
+    public static final int CELL_SHIFT = 4; // 16 blocks, the size of a chunk section
+    public static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    public static final class Handle<T> {
+        public final T value;
+        // Free slot for the owner of the hash (e.g. a per-tick index). The hash only reads it in
+        // cellQuery, where a negative id marks a value sitting out the current pass.
+        public int id;
+
+        private Box bounds;
+        private int minX, minY, minZ, maxX, maxY, maxZ; // Covered cell range, inclusive
+        private boolean inserted;
+
+        private Handle(T value) {
+            this.value = value;
+        }
+
+        public Box getBounds() {
+            return bounds;
+        }
+    }
+
+    private final Long2ObjectOpenHashMap<List<Handle<T>>> cells = new Long2ObjectOpenHashMap<>();
+    private int size;
+
+    public Handle<T> insert(T value, Box bounds) {
+        Handle<T> handle = new Handle<>(value);
+        update(handle, bounds);
+        size++;
+        return handle;
+    }
+
+    /**
+     * Moves a value to new bounds. Only re-buckets it if the covered cell range changed.
+     */
+    public void update(Handle<T> handle, Box bounds) {
+        handle.bounds = bounds;
+
+        int minX = cellCoord(bounds.minX);
+        int minY = cellCoord(bounds.minY);
+        int minZ = cellCoord(bounds.minZ);
+        int maxX = cellCoord(bounds.maxX);
+        int maxY = cellCoord(bounds.maxY);
+        int maxZ = cellCoord(bounds.maxZ);
+
+        if (handle.inserted
+                && minX == handle.minX && minY == handle.minY && minZ == handle.minZ
+                && maxX == handle.maxX && maxY == handle.maxY && maxZ == handle.maxZ) {
+            return;
+        }
+
+        if (handle.inserted) {
+            removeFromCells(handle);
+        }
+        handle.minX = minX;
+        handle.minY = minY;
+        handle.minZ = minZ;
+        handle.maxX = maxX;
+        handle.maxY = maxY;
+        handle.maxZ = maxZ;
+        addToCells(handle);
+    }
+
+    public void remove(Handle<T> handle) {
+        if (handle.inserted) {
+            removeFromCells(handle);
+            size--;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * All non-empty cells, keyed by their packed cell position (see {@link #cellKey}).
+     */
+    public ObjectIterable<Long2ObjectMap.Entry<List<Handle<T>>>> cells() {
+        return Long2ObjectMaps.fastIterable(cells);
+    }
+
+    /**
+     * The values listed in one cell, or null if it is empty. Read-only.
+     */
+    public List<Handle<T>> getCell(int x, int y, int z) {
+        return cells.get(cellKey(x, y, z));
+    }
+
+    /**
+     * Visits every value whose bounds intersect {@code box}, each exactly once.
+     */
+    public void query(Box box, Consumer<Handle<T>> consumer) {
+        int minX = cellCoord(box.minX);
+        int minY = cellCoord(box.minY);
+        int minZ = cellCoord(box.minZ);
+        int maxX = cellCoord(box.maxX);
+        int maxY = cellCoord(box.maxY);
+        int maxZ = cellCoord(box.maxZ);
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    long key = cellKey(x, y, z);
+                    List<Handle<T>> list = cells.get(key);
+                    if (list == null) {
+                        continue;
+                    }
+                    for (int i = 0, n = list.size(); i < n; i++) {
+                        Handle<T> handle = list.get(i);
+                        if (handle.bounds.intersects(box) && isOwnerCell(key, handle.bounds, box)) {
+                            consumer.accept(handle);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Two overlapping boxes are both listed in every cell their intersection touches.
+     * The overlap is "owned" by the cell containing the minimum corner of that intersection,
+     * so checking this keeps a cell-by-cell sweep from reporting the same pair twice.
+     */
+    public static boolean isOwnerCell(long key, Box a, Box b) {
+        return ChunkSectionPos.unpackX(key) == cellCoord(Math.max(a.minX, b.minX))
+                && ChunkSectionPos.unpackY(key) == cellCoord(Math.max(a.minY, b.minY))
+                && ChunkSectionPos.unpackZ(key) == cellCoord(Math.max(a.minZ, b.minZ));
+    }
+
+    /**
+     * The region worth querying for one cell: the union of the bounds listed in it, clipped to the
+     * cell itself since neighbouring cells cover the rest. Values with a negative {@link Handle#id}
+     * are left out.
+     *
+     * @return the clipped union, or null if no value in the cell takes part.
+     */
+    public static <T> Box cellQuery(long key, List<Handle<T>> cellValues) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (int i = 0, n = cellValues.size(); i < n; i++) {
+            Handle<T> handle = cellValues.get(i);
+            if (handle.id < 0) {
+                continue;
+            }
+            Box bounds = handle.bounds;
+            minX = Math.min(minX, bounds.minX);
+            minY = Math.min(minY, bounds.minY);
+            minZ = Math.min(minZ, bounds.minZ);
+            maxX = Math.max(maxX, bounds.maxX);
+            maxY = Math.max(maxY, bounds.maxY);
+            maxZ = Math.max(maxZ, bounds.maxZ);
+        }
+        if (minX > maxX) {
+            return null;
+        }
+
+        double cellMinX = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackX(key));
+        double cellMinY = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackY(key));
+        double cellMinZ = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackZ(key));
+        return new Box(
+                Math.max(minX, cellMinX),
+                Math.max(minY, cellMinY),
+                Math.max(minZ, cellMinZ),
+                Math.min(maxX, cellMinX + CELL_SIZE),
+                Math.min(maxY, cellMinY + CELL_SIZE),
+                Math.min(maxZ, cellMinZ + CELL_SIZE));
+    }
+
+    public static int cellCoord(double coord) {
+        return MathHelper.floor(coord) >> CELL_SHIFT;
+    }
+
+    public static long cellKey(int x, int y, int z) {
+        return ChunkSectionPos.asLong(x, y, z);
+    }
+
+    private void addToCells(Handle<T> handle) {
+        for (int x = handle.minX; x <= handle.maxX; x++) {
+            for (int y = handle.minY; y <= handle.maxY; y++) {
+                for (int z = handle.minZ; z <= handle.maxZ; z++) {
+                    long key = cellKey(x, y, z);
+                    List<Handle<T>> list = cells.get(key);
+                    if (list == null) {
+                        list = new ArrayList<>(4);
+                        cells.put(key, list);
+                    }
+                    list.add(handle);
+                }
+            }
+        }
+        handle.inserted = true;
+    }
+
+    private void removeFromCells(Handle<T> handle) {
+        for (int x = handle.minX; x <= handle.maxX; x++) {
+            for (int y = handle.minY; y <= handle.maxY; y++) {
+                for (int z = handle.minZ; z <= handle.maxZ; z++) {
+                    long key = cellKey(x, y, z);
+                    List<Handle<T>> list = cells.get(key);
+                    if (list != null && list.remove(handle) && list.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+        handle.inserted = false;
+    }
+}
@@ -0,0 +1,129 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.server.world.ServerWorld;
+import org.spifftech.ultimatecollisionengine.entity.CustomCollisionEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.spifftech.ultimatecollisionengine.Ultimatecollisionengine.LOGGER;
+
+/**
+ * Aggregated collision debug output for one world, enabled by the {@code CollisionDebug} gamerule.
+ * <p>
+ * Instead of logging every contact, counts are summed per collider and flushed once per
+ * {@link #FLUSH_INTERVAL} ticks as one summary line plus the busiest {@link #MAX_LISTED} colliders.
+ * While the gamerule is off, every recording call site is skipped behind one {@link #isEnabled()}
+ * check, so the disabled path does no work at all.
+ */
+public class CollisionDebugLog {
+
+    // One summary per second
+    private static final int FLUSH_INTERVAL = 20;
+    // Only the colliders with the most contacts are listed individually
+    private static final int MAX_LISTED = 5;
+
+    private final Int2ObjectOpenHashMap<Counts> counts = new Int2ObjectOpenHashMap<>();
+    private boolean enabled;
+    private int ticks;
+
+    /**
+     * Takes the gamerule's cached value for this tick.
+     *
+     * @return whether recording is enabled for this tick.
+     */
+    public boolean beginTick(boolean on) {
+        if (!on && enabled) {
+            counts.clear();
+            ticks = 0;
+        }
+        enabled = on;
+        return on;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void recordCandidates(CustomCollisionEntity collider, int candidates) {
+        counts(collider).candidates += candidates;
+    }
+
+    public void recordPush(CustomCollisionEntity collider) {
+        counts(collider).pushes++;
+    }
+
+    public void recordImpact(CustomCollisionEntity collider) {
+        counts(collider).impacts++;
+    }
+
+    public void recordTerrain(CustomCollisionEntity collider) {
+        counts(collider).terrain++;
+    }
+
+    public void recordColliderContact(CustomCollisionEntity first, CustomCollisionEntity second) {
+        counts(first).colliderContacts++;
+        counts(second).colliderContacts++;
+    }
+
+    /**
+     * Flushes the summary once per interval. Call after every tick's collision pass.
+     */
+    public void endTick(ServerWorld world, int colliderCount) {
+        if (!enabled || ++ticks < FLUSH_INTERVAL) {
+            return;
+        }
+
+        long candidates = 0, pushes = 0, impacts = 0, terrain = 0, colliderContacts = 0;
+        List<Counts> busiest = new ArrayList<>(counts.values());
+        for (Counts c : busiest) {
+            candidates += c.candidates;
+            pushes += c.pushes;
+            impacts += c.impacts;
+            terrain += c.terrain;
+            colliderContacts += c.colliderContacts;
+        }
+        LOGGER.info("[{}] {} colliders over {} ticks: {} candidates, {} pushes, {} impacts, {} terrain, {} collider contacts",
+                world.getRegistryKey().getValue(), colliderCount, ticks,
+                candidates, pushes, impacts, terrain, colliderContacts);
+
+        busiest.removeIf(c -> c.contacts() == 0);
+        busiest.sort((a, b) -> Integer.compare(b.contacts(), a.contacts()));
+        for (int i = 0; i < Math.min(MAX_LISTED, busiest.size()); i++) {
+            Counts c = busiest.get(i);
+            LOGGER.info("  collider {} at ({}, {}, {}): {} candidates, {} pushes, {} impacts, {} terrain, {} collider contacts",
+                    c.entityId, String.format("%.1f", c.x), String.format("%.1f", c.y), String.format("%.1f", c.z),
+                    c.candidates, c.pushes, c.impacts, c.terrain, c.colliderContacts);
+        }
+
+        counts.clear();
+        ticks = 0;
+    }
+
+    private Counts counts(CustomCollisionEntity collider) {
+        Counts c = counts.get(collider.getId());
+        if (c == null) {
+            c = new Counts(collider.getId());
+            counts.put(collider.getId(), c);
+        }
+        c.x = collider.getX();
+        c.y = collider.getY();
+        c.z = collider.getZ();
+        return c;
+    }
+
+    private static final class Counts {
+        final int entityId;
+        double x, y, z; // Last known position
+        int candidates, pushes, impacts, terrain, colliderContacts;
+
+        Counts(int entityId) {
+            this.entityId = entityId;
+        }
+
+        int contacts() {
+            return pushes + impacts + terrain + colliderContacts;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkSectionPos;
+import org.spifftech.ultimatecollisionengine.engine.trace.CollisionTrace;
+import org.spifftech.ultimatecollisionengine.engine.trace.CollisionTraceWriter;
+import org.spifftech.ultimatecollisionengine.entity.CustomCollisionEntity;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Entry point of the collision engine: owns one {@link CollisionWorld} per server world and
+ * wires it to the Fabric lifecycle events that load/unload colliders and tick the worlds. Also keeps
+ * each server world's {@link ColliderIndex} up to date for movement clipping.
+ */
+public final class CollisionEngine {
+
+    private static final Map<ServerWorld, CollisionWorld> WORLDS = new IdentityHashMap<>();
+    private static final String TRACE_DIRECTORY = "uce-traces";
+
+    private CollisionEngine() {
+    }
+
+    public static void register() {
+        ServerEntityEvents.ENTITY_LOAD.register((entity, world) -> {
+            if (entity instanceof CustomCollisionEntity collider) {
+                get(world).add(collider);
+                ColliderIndex.of(world).add(collider);
+            } else {
+                onSectionEntered(entity, ChunkSectionPos.toLong(entity.getBlockPos()));
+            }
+        });
+
+        ServerEntityEvents.ENTITY_UNLOAD.register((entity, world) -> {
+            if (entity instanceof CustomCollisionEntity collider) {
+                ColliderIndex.of(world).remove(collider);
+                CollisionWorld collisionWorld = WORLDS.get(world);
+                if (collisionWorld != null) {
+                    collisionWorld.remove(collider);
+                }
+            }
+        });
+
+        // Entities have all ticked by now, so colliders have their final transform for this tick
+        ServerTickEvents.END_WORLD_TICK.register(world -> {
+            ColliderIndex.of(world).refresh();
+            CollisionWorld collisionWorld = WORLDS.get(world);
+            if (collisionWorld != null) {
+                collisionWorld.tick();
+            }
+        });
+
+        ServerWorldEvents.UNLOAD.register((server, world) -> {
+            CollisionWorld collisionWorld = WORLDS.remove(world);
+            if (collisionWorld != null) {
+                collisionWorld.stopTrace();
+            }
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            WORLDS.values().forEach(CollisionWorld::stopTrace);
+            WORLDS.clear();
+            CollisionMetrics.releaseDeadThreads();
+        });
+    }
+
+    /**
+     * Called when a server entity spawns into or moves into a chunk section. Colliders are not
+     * reported: they wake each other through the broad phase instead.
+     */
+    public static void onSectionEntered(Entity entity, long sectionKey) {
+        if (entity instanceof CustomCollisionEntity || !(entity.getWorld() instanceof ServerWorld world)) {
+            return;
+        }
+        CollisionWorld collisionWorld = WORLDS.get(world);
+        if (collisionWorld != null) {
+            collisionWorld.onSectionEntered(sectionKey);
+        }
+    }
+
+    /**
+     * Starts recording a collision trace of a world into the server's {@code uce-traces} directory,
+     * see {@link CollisionTrace}. Replaces any trace already running in that world.
+     *
+     * @return the trace file.
+     */
+    public static Path startTrace(ServerWorld world, int ticks) throws IOException {
+        String worldId = world.getRegistryKey().getValue().toString();
+        String name = worldId.replace(':', '_').replace('/', '_') + "-"
+                + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + CollisionTrace.EXTENSION;
+        Path file = world.getServer().getRunDirectory().toPath().resolve(TRACE_DIRECTORY).resolve(name);
+        get(world).startTrace(new CollisionTraceWriter(file, worldId, ticks));
+        return file;
+    }
+
+    /**
+     * Finishes a world's running trace.
+     *
+     * @return the finished trace, or null if none was running.
+     */
+    public static CollisionTraceWriter stopTrace(ServerWorld world) {
+        CollisionWorld collisionWorld = WORLDS.get(world);
+        return collisionWorld == null ? null : collisionWorld.stopTrace();
+    }
+
+    /**
+     * Called by the collision gamerules when one of them changes, so every world of that server
+     * re-reads its cached {@link CollisionSettings}.
+     */
+    public static void onSettingsChanged(MinecraftServer server) {
+        for (CollisionWorld collisionWorld : WORLDS.values()) {
+            if (collisionWorld.getWorld().getServer() == server) {
+                collisionWorld.onSettingsChanged();
+            }
+        }
+    }
+
+    /**
+     * The collision registry for a world, created on first use.
+     */
+    public static CollisionWorld get(ServerWorld world) {
+        CollisionWorld collisionWorld = WORLDS.get(world);
+        if (collisionWorld == null) {
+            collisionWorld = new CollisionWorld(world);
+            WORLDS.put(world, collisionWorld);
+        }
+        return collisionWorld;
+    }
+}
@@ -0,0 +1,337 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Engine-wide collision metrics since the last reset, shown by {@code /uce stats}.
+ * <p>
+ * Each thread counts into its own {@link Recorder} (plain fields, no atomics or locks), including
+ * the narrow-phase workers. At the end of every world's collision pass the server thread, which is
+ * the only one running at that point, drains all recorders into the totals. Recorders of threads
+ * that have died since (idle pool workers, the integrated server thread of a closed world) are
+ * dropped once drained.
+ */
+public final class CollisionMetrics {
+
+    // Separating-axis histogram: bins 0-14 are the SAT axis indices of SatCollisionHelper, 15 is "no separating axis"
+    public static final int AXIS_BINS = 16;
+    public static final int AXIS_NONE = 15;
+    // Only one in this many batch misses is re-run through the early-out kernel for the axis histogram
+    private static final int AXIS_SAMPLE_MASK = 15;
+
+    // Phases of CollisionWorld.tick(), timed separately
+    public static final int PHASE_TRANSFORMS = 0;
+    public static final int PHASE_BROAD = 1;
+    public static final int PHASE_NARROW = 2;
+    public static final int PHASE_APPLY = 3;
+    public static final int PHASE_COLLIDERS = 4;
+    public static final int PHASE_COUNT = 5;
+    private static final String[] PHASE_NAMES = {"transforms_terrain", "broad_phase", "narrow_phase", "apply", "collider_pairs"};
+
+    /**
+     * One thread's counters. Only its owning thread writes to it.
+     */
+    public static final class Recorder {
+        // Weak, so a dead thread is not kept reachable through its recorder
+        private final WeakReference<Thread> owner = new WeakReference<>(Thread.currentThread());
+        public long candidates;
+        public long satTests;
+        public long hits;
+        public long pushes;
+        public long impacts;
+        public long terrainPushes;
+        public long colliderContacts;
+        // Entities given a combined correction, and players among them that had to be teleported
+        public long corrections;
+        public long teleports;
+        // Scalar-path pairs rejected by SAT, and those of them rejected on their cached axes alone
+        public long scalarRejects;
+        public long cachedRejects;
+        // Colliders left for the next tick by the tick budget, and results over the per-tick push cap
+        public long deferredColliders;
+        public long deferredPushes;
+        public final long[] separatingAxis = new long[AXIS_BINS];
+        // Narrow-phase time per collider per tick
+        public final LogHistogram colliderNanos = new LogHistogram();
+        private int sampleCounter;
+
+        /**
+         * Whether this miss should be sampled for the separating-axis histogram.
+         */
+        public boolean sampleAxis() {
+            return (++sampleCounter & AXIS_SAMPLE_MASK) == 0;
+        }
+
+        /**
+         * Whether the owning thread has died, so nothing will be recorded here any more.
+         */
+        boolean isOrphaned() {
+            Thread thread = owner.get();
+            return thread == null || !thread.isAlive();
+        }
+
+        public void recordAxis(int axis) {
+            separatingAxis[axis < 0 ? AXIS_NONE : axis]++;
+        }
+
+        void drainInto(Recorder total) {
+            total.candidates += candidates;
+            total.satTests += satTests;
+            total.hits += hits;
+            total.pushes += pushes;
+            total.impacts += impacts;
+            total.terrainPushes += terrainPushes;
+            total.colliderContacts += colliderContacts;
+            total.corrections += corrections;
+            total.teleports += teleports;
+            total.scalarRejects += scalarRejects;
+            total.cachedRejects += cachedRejects;
+            total.deferredColliders += deferredColliders;
+            total.deferredPushes += deferredPushes;
+            for (int i = 0; i < AXIS_BINS; i++) {
+                total.separatingAxis[i] += separatingAxis[i];
+            }
+            total.colliderNanos.merge(colliderNanos);
+            reset();
+        }
+
+        void reset() {
+            candidates = 0;
+            satTests = 0;
+            hits = 0;
+            pushes = 0;
+            impacts = 0;
+            terrainPushes = 0;
+            colliderContacts = 0;
+            corrections = 0;
+            teleports = 0;
+            scalarRejects = 0;
+            cachedRejects = 0;
+            deferredColliders = 0;
+            deferredPushes = 0;
+            Arrays.fill(separatingAxis, 0);
+            colliderNanos.reset();
+        }
+    }
+
+    private static final List<Recorder> RECORDERS = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<Recorder> LOCAL = ThreadLocal.withInitial(() -> {
+        Recorder recorder = new Recorder();
+        RECORDERS.add(recorder);
+        return recorder;
+    });
+
+    // Totals, only touched on the server thread
+    private static final Recorder TOTAL = new Recorder();
+    private static final LogHistogram TICK_NANOS = new LogHistogram();
+    private static final long[] PHASE_NANOS = new long[PHASE_COUNT];
+    private static long ticks;
+    private static long colliderTicks;
+    private static long resetAt = System.currentTimeMillis();
+
+    private CollisionMetrics() {
+    }
+
+    /**
+     * The calling thread's recorder.
+     */
+    public static Recorder recorder() {
+        return LOCAL.get();
+    }
+
+    /**
+     * Closes one world's collision pass: folds every thread's counts into the totals.
+     * Must be called on the server thread while no narrow-phase work is running.
+     */
+    public static void endTick(int colliderCount, long[] phaseNanos) {
+        long total = 0;
+        for (int i = 0; i < PHASE_NANOS.length; i++) {
+            PHASE_NANOS[i] += phaseNanos[i];
+            total += phaseNanos[i];
+        }
+        TICK_NANOS.record(total);
+        ticks++;
+        colliderTicks += colliderCount;
+        for (Recorder recorder : RECORDERS) {
+            recorder.drainInto(TOTAL);
+        }
+        // Only copies the list when something was actually removed
+        RECORDERS.removeIf(Recorder::isOrphaned);
+    }
+
+    /**
+     * Drops the recorders of dead threads, folding in what they counted since the last pass.
+     * Called when a server stops, so a closed integrated server's threads are not kept.
+     */
+    public static void releaseDeadThreads() {
+        for (Recorder recorder : RECORDERS) {
+            if (recorder.isOrphaned()) {
+                recorder.drainInto(TOTAL);
+            }
+        }
+        RECORDERS.removeIf(Recorder::isOrphaned);
+    }
+
+    public static void reset() {
+        for (Recorder recorder : RECORDERS) {
+            recorder.reset();
+        }
+        RECORDERS.removeIf(Recorder::isOrphaned);
+        TOTAL.reset();
+        TICK_NANOS.reset();
+        Arrays.fill(PHASE_NANOS, 0);
+        ticks = 0;
+        colliderTicks = 0;
+        resetAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Human-readable summary, one line per entry.
+     */
+    public static List<String> summary() {
+        List<String> lines = new ArrayList<>();
+        double seconds = (System.currentTimeMillis() - resetAt) / 1000.0;
+        lines.add(String.format("Collision stats over %.0fs: %d world ticks, %d collider ticks", seconds, ticks, colliderTicks));
+        lines.add(String.format("Candidates %d, SAT tests %d, hits %d, pushes %d, impacts %d, terrain %d, collider contacts %d",
+                TOTAL.candidates, TOTAL.satTests, TOTAL.hits, TOTAL.pushes, TOTAL.impacts,
+                TOTAL.terrainPushes, TOTAL.colliderContacts));
+        lines.add(String.format("Corrected entities %d, player teleports %d", TOTAL.corrections, TOTAL.teleports));
+        lines.add(String.format("Scalar rejects %d, %.1f%% on the cached axis",
+                TOTAL.scalarRejects, TOTAL.scalarRejects == 0 ? 0.0 : 100.0 * TOTAL.cachedRejects / TOTAL.scalarRejects));
+        lines.add(String.format("Deferred colliders %d, deferred pushes %d", TOTAL.deferredColliders, TOTAL.deferredPushes));
+        lines.add(String.format("Pass time: mean %.1fus, p50 <%.1fus, p99 <%.1fus, max %.1fus",
+                TICK_NANOS.getMean() / 1000.0, TICK_NANOS.getPercentile(50) / 1000.0,
+                TICK_NANOS.getPercentile(99) / 1000.0, TICK_NANOS.getMax() / 1000.0));
+        StringBuilder phases = new StringBuilder("Phases (mean us):");
+        for (int i = 0; i < PHASE_NAMES.length; i++) {
+            phases.append(' ').append(PHASE_NAMES[i]).append('=')
+                    .append(String.format("%.1f", ticks == 0 ? 0.0 : PHASE_NANOS[i] / 1000.0 / ticks));
+        }
+        lines.add(phases.toString());
+        LogHistogram collider = TOTAL.colliderNanos;
+        lines.add(String.format("Per collider: mean %.2fus, p99 <%.2fus, max %.2fus",
+                collider.getMean() / 1000.0, collider.getPercentile(99) / 1000.0, collider.getMax() / 1000.0));
+        StringBuilder axes = new StringBuilder("Separating axis (sampled):");
+        for (int i = 0; i < AXIS_BINS; i++) {
+            if (TOTAL.separatingAxis[i] != 0) {
+                axes.append(' ').append(i == AXIS_NONE ? "none" : Integer.toString(i)).append('=').append(TOTAL.separatingAxis[i]);
+            }
+        }
+        lines.add(axes.toString());
+        return lines;
+    }
+
+    /**
+     * Writes all totals to a timestamped {@code uce-stats-*.json} or {@code .csv} file in {@code directory}.
+     *
+     * @return the written file.
+     */
+    public static Path dump(Path directory, boolean csv) throws IOException {
+        String name = "uce-stats-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + (csv ? ".csv" : ".json");
+        Path file = directory.resolve(name);
+        Files.writeString(file, csv ? toCsv() : toJson(), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static String toJson() {
+        JsonObject root = new JsonObject();
+        root.addProperty("seconds", (System.currentTimeMillis() - resetAt) / 1000.0);
+        root.addProperty("world_ticks", ticks);
+        root.addProperty("collider_ticks", colliderTicks);
+        root.addProperty("candidates", TOTAL.candidates);
+        root.addProperty("sat_tests", TOTAL.satTests);
+        root.addProperty("hits", TOTAL.hits);
+        root.addProperty("pushes", TOTAL.pushes);
+        root.addProperty("impacts", TOTAL.impacts);
+        root.addProperty("terrain_pushes", TOTAL.terrainPushes);
+        root.addProperty("collider_contacts", TOTAL.colliderContacts);
+        root.addProperty("corrections", TOTAL.corrections);
+        root.addProperty("teleports", TOTAL.teleports);
+        root.addProperty("scalar_rejects", TOTAL.scalarRejects);
+        root.addProperty("cached_rejects", TOTAL.cachedRejects);
+        root.addProperty("deferred_colliders", TOTAL.deferredColliders);
+        root.addProperty("deferred_pushes", TOTAL.deferredPushes);
+
+        JsonObject phases = new JsonObject();
+        for (int i = 0; i < PHASE_NAMES.length; i++) {
+            phases.addProperty(PHASE_NAMES[i] + "_nanos", PHASE_NANOS[i]);
+        }
+        root.add("phases", phases);
+        root.add("pass_nanos", histogramJson(TICK_NANOS));
+        root.add("collider_nanos", histogramJson(TOTAL.colliderNanos));
+
+        JsonArray axes = new JsonArray();
+        for (long count : TOTAL.separatingAxis) {
+            axes.add(count);
+        }
+        root.add("separating_axis", axes);
+        return new GsonBuilder().setPrettyPrinting().create().toJson(root);
+    }
+
+    private static JsonObject histogramJson(LogHistogram histogram) {
+        JsonObject json = new JsonObject();
+        json.addProperty("count", histogram.getCount());
+        json.addProperty("sum", histogram.getSum());
+        json.addProperty("max", histogram.getMax());
+        json.addProperty("p50", histogram.getPercentile(50));
+        json.addProperty("p99", histogram.getPercentile(99));
+        JsonArray buckets = new JsonArray();
+        for (int i = 0; i < histogram.getBucketCount(); i++) {
+            buckets.add(histogram.getBucket(i));
+        }
+        json.add("log2_buckets", buckets);
+        return json;
+    }
+
+    private static String toCsv() {
+        StringBuilder csv = new StringBuilder("metric,value\n");
+        csv.append("seconds,").append((System.currentTimeMillis() - resetAt) / 1000.0).append('\n');
+        csv.append("world_ticks,").append(ticks).append('\n');
+        csv.append("collider_ticks,").append(colliderTicks).append('\n');
+        csv.append("candidates,").append(TOTAL.candidates).append('\n');
+        csv.append("sat_tests,").append(TOTAL.satTests).append('\n');
+        csv.append("hits,").append(TOTAL.hits).append('\n');
+        csv.append("pushes,").append(TOTAL.pushes).append('\n');
+        csv.append("impacts,").append(TOTAL.impacts).append('\n');
+        csv.append("terrain_pushes,").append(TOTAL.terrainPushes).append('\n');
+        csv.append("collider_contacts,").append(TOTAL.colliderContacts).append('\n');
+        csv.append("corrections,").append(TOTAL.corrections).append('\n');
+        csv.append("teleports,").append(TOTAL.teleports).append('\n');
+        csv.append("scalar_rejects,").append(TOTAL.scalarRejects).append('\n');
+        csv.append("cached_rejects,").append(TOTAL.cachedRejects).append('\n');
+        csv.append("deferred_colliders,").append(TOTAL.deferredColliders).append('\n');
+        csv.append("deferred_pushes,").append(TOTAL.deferredPushes).append('\n');
+        for (int i = 0; i < PHASE_NAMES.length; i++) {
+            csv.append(PHASE_NAMES[i]).append("_nanos,").append(PHASE_NANOS[i]).append('\n');
+        }
+        histogramCsv(csv, "pass_nanos", TICK_NANOS);
+        histogramCsv(csv, "collider_nanos", TOTAL.colliderNanos);
+        for (int i = 0; i < AXIS_BINS; i++) {
+            csv.append("separating_axis_").append(i == AXIS_NONE ? "none" : Integer.toString(i))
+                    .append(',').append(TOTAL.separatingAxis[i]).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static void histogramCsv(StringBuilder csv, String name, LogHistogram histogram) {
+        csv.append(name).append("_count,").append(histogram.getCount()).append('\n');
+        csv.append(name).append("_sum,").append(histogram.getSum()).append('\n');
+        csv.append(name).append("_max,").append(histogram.getMax()).append('\n');
+        csv.append(name).append("_p50,").append(histogram.getPercentile(50)).append('\n');
+        csv.append(name).append("_p99,").append(histogram.getPercentile(99)).append('\n');
+    }
+}
@@ -0,0 +1,73 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+import net.minecraft.world.GameRules;
+import org.spifftech.ultimatecollisionengine.Ultimatecollisionengine;
+
+/**
+ * A world's collision gamerules, read once and converted to the units the engine uses. The tick
+ * loop only reads these fields; {@link #refresh} runs when the world's {@link CollisionWorld} is
+ * created and again whenever one of the gamerules changes (see the change callbacks registered
+ * in {@link Ultimatecollisionengine}), so no {@code GameRules} lookup happens per contact.
+ */
+public class CollisionSettings {
+
+    private double pushFactor;
+    private double teleportThreshold;
+    private double queryMargin;
+    private int maxPushes;
+    private long tickBudgetNanos;
+    private boolean debug;
+
+    public CollisionSettings(GameRules rules) {
+        refresh(rules);
+    }
+
+    public void refresh(GameRules rules) {
+        // A push adds 1/CollisionPushDistance of its separation to the entity's velocity
+        pushFactor = 1.0 / Math.max(1, rules.getInt(Ultimatecollisionengine.CollisionPushDistance));
+        teleportThreshold = rules.getInt(Ultimatecollisionengine.CollisionTeleportThreshold) / 100.0;
+        queryMargin = rules.getInt(Ultimatecollisionengine.CollisionQueryMargin) / 100.0;
+        maxPushes = rules.getInt(Ultimatecollisionengine.CollisionMaxPushes);
+        tickBudgetNanos = rules.getInt(Ultimatecollisionengine.CollisionTickBudget) * 1_000_000L;
+        debug = rules.getBoolean(Ultimatecollisionengine.CollisionDebug);
+    }
+
+    /**
+     * The share of a push's separation that is also added to the entity's velocity.
+     */
+    public double getPushFactor() {
+        return pushFactor;
+    }
+
+    /**
+     * Player corrections longer than this (in blocks) teleport to an absolute position instead of being moved through their velocity.
+     */
+    public double getTeleportThreshold() {
+        return teleportThreshold;
+    }
+
+    /**
+     * Extra room around each collider's bounds in the broad phase, in blocks.
+     */
+    public double getQueryMargin() {
+        return queryMargin;
+    }
+
+    /**
+     * How many pushes are applied per tick; 0 for no limit. Impacts are never capped.
+     */
+    public int getMaxPushes() {
+        return maxPushes;
+    }
+
+    /**
+     * How long one world's collision pass should take, in nanoseconds; 0 for no budget.
+     */
+    public long getTickBudgetNanos() {
+        return tickBudgetNanos;
+    }
+
+    public boolean isDebug() {
+        return debug;
+    }
+}
@@ -0,0 +1,807 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.Box;
+import org.spifftech.ultimatecollisionengine.boxcollision.AabbBuffer;
+import org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper;
+import org.spifftech.ultimatecollisionengine.engine.trace.CollisionTraceWriter;
+import org.spifftech.ultimatecollisionengine.entity.CustomCollisionEntity;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.spifftech.ultimatecollisionengine.Ultimatecollisionengine.LOGGER;
+
+/**
+ * Per-world collision registry. Tracks every loaded {@link CustomCollisionEntity} in a shared
+ * {@link ColliderSpatialHash} and, once per world tick, runs a single broad-phase pass that
+ * produces all (collider, entity) candidate pairs before handing them to the SAT narrow phase.
+ * <p>
+ * The broad phase issues one entity query per occupied cell instead of one per collider, so
+ * colliders packed into the same area share a single walk over the entity sections.
+ * <p>
+ * The entity narrow phase runs in three steps: a gather that snapshots every candidate's box and
+ * movement, the SAT work itself, which only reads the snapshot and collider transforms and is
+ * spread over a shared fork-join pool once a tick has enough pairs, and an apply step that moves
+ * entities on the server thread in collider and pair order, so the outcome does not depend on
+ * how the work was split.
+ */
+public class CollisionWorld {
+
+    // How far an entity may have moved this tick and still be found for a swept test. Matches the
+    // slack vanilla's entity lookup already scans around every query, so it costs no extra sections.
+    private static final double SWEEP_MARGIN = 2.0;
+
+    // Below this many pairs the whole narrow phase is cheaper on the server thread than handing it off
+    private static final int PARALLEL_THRESHOLD = 256;
+    // A worker task stops splitting once its colliders have at most this many pairs between them
+    private static final int SPLIT_PAIRS = 64;
+    // Up to this many candidates per collider, the cached early-out test beats the branchless batch
+    private static final int SCALAR_CANDIDATES = 16;
+    // A collider with no candidates for this many ticks in a row goes dormant (see ColliderActivity)
+    public static final int DORMANT_AFTER_TICKS = 100;
+    // How quickly the estimated pass cost per collider follows the measured one
+    private static final double COST_SMOOTHING = 0.1;
+
+    private static final ForkJoinPool NARROW_PHASE_POOL = createNarrowPhasePool();
+    private static final ThreadLocal<NarrowPhaseScratch> SCRATCH = ThreadLocal.withInitial(NarrowPhaseScratch::new);
+
+    private static final Predicate<Entity> CANDIDATE_FILTER = entity -> entity.isAlive()
+            && !(entity instanceof CustomCollisionEntity); // Don't check against self-type
+
+    private final ServerWorld world;
+    private final ColliderSpatialHash<CustomCollisionEntity> broadPhase = new ColliderSpatialHash<>();
+    // Linked so colliders are always processed in a stable (load) order
+    private final Reference2ObjectLinkedOpenHashMap<CustomCollisionEntity, ColliderSpatialHash.Handle<CustomCollisionEntity>> colliders =
+            new Reference2ObjectLinkedOpenHashMap<>();
+
+    private final List<CustomCollisionEntity> active = new ArrayList<>();
+    private final CandidatePairs pairs = new CandidatePairs();
+
+    // Gathered once per tick, in grouped pair order: each candidate's box and its movement this tick
+    private final AabbBuffer pairBoxes = new AabbBuffer(64);
+    private double[] pairMoves = new double[3 * 64];
+    private final PairResults results = new PairResults();
+    private final PushAccumulator pushes = new PushAccumulator();
+    // Colliders moved apart by the collider-collider pass, re-bounded once the pass is over
+    private final List<ColliderSpatialHash.Handle<CustomCollisionEntity>> separated = new ArrayList<>();
+
+    private final DormancyIndex dormancy = new DormancyIndex();
+    private final CollisionDebugLog debugLog = new CollisionDebugLog();
+    private final long[] phaseNanos = new long[CollisionMetrics.PHASE_COUNT]; // Indexed by CollisionMetrics.PHASE_*
+    private CollisionTraceWriter trace; // Set while /uce trace is recording this world
+
+    private final CollisionSettings settings;
+    // Tick budget: where the next tick starts visiting colliders, and the estimated pass cost per awake collider
+    private int budgetCursor;
+    private double nanosPerCollider;
+    // The collider the next tick starts applying pushes at, or null (see applyResults). Held by
+    // reference because its index in active changes whenever colliders sleep, wake or are deferred.
+    private CustomCollisionEntity pushResume;
+
+    public CollisionWorld(ServerWorld world) {
+        this.world = world;
+        this.settings = new CollisionSettings(world.getGameRules());
+    }
+
+    public ServerWorld getWorld() {
+        return world;
+    }
+
+    public void add(CustomCollisionEntity collider) {
+        if (!colliders.containsKey(collider)) {
+            collider.updateTransform();
+            collider.consumeTransformChange();
+            colliders.put(collider, broadPhase.insert(collider, queryBounds(collider)));
+        }
+    }
+
+    public void remove(CustomCollisionEntity collider) {
+        ColliderSpatialHash.Handle<CustomCollisionEntity> handle = colliders.remove(collider);
+        if (collider == pushResume) {
+            pushResume = null;
+        }
+        if (handle != null) {
+            broadPhase.remove(handle);
+            dormancy.unwatch(collider);
+            collider.getActivity().wake();
+        }
+    }
+
+    /**
+     * Wakes the dormant colliders watching the chunk section an entity has just entered.
+     */
+    public void onSectionEntered(long sectionKey) {
+        dormancy.onSectionEntered(sectionKey);
+    }
+
+    public CollisionSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Re-reads the gamerules after one changed. A new query margin is applied to every awake
+     * collider at once; sleeping ones pick it up when they wake.
+     */
+    public void onSettingsChanged() {
+        settings.refresh(world.getGameRules());
+        for (ColliderSpatialHash.Handle<CustomCollisionEntity> handle : colliders.values()) {
+            if (!handle.value.getActivity().isDormant()) {
+                broadPhase.update(handle, queryBounds(handle.value));
+            }
+        }
+    }
+
+    public int getColliderCount() {
+        return colliders.size();
+    }
+
+    /**
+     * Runs the collision pass for this world. Called once per world tick, after entities ticked.
+     */
+    public void tick() {
+        if (colliders.isEmpty()) {
+            return;
+        }
+        boolean debug = debugLog.beginTick(settings.isDebug());
+        CollisionMetrics.Recorder metrics = CollisionMetrics.recorder();
+        long phaseStart = System.nanoTime();
+
+        // Step 1: Refresh collider transforms, push them out of terrain and update their place
+        // in the broad-phase index. Colliders are visited in load order from the budget cursor,
+        // wrapping round; once the tick budget is used up the rest wait for the next tick.
+        int count = colliders.size();
+        int start = budgetCursor < count ? budgetCursor : 0;
+        long budget = settings.getTickBudgetNanos();
+        boolean overBudget = false;
+        int firstDeferred = -1;
+        for (int pass = 0; pass < 2; pass++) {
+            // Pass 0 runs from the cursor to the end, pass 1 from the beginning up to the cursor
+            int index = 0;
+            for (ColliderSpatialHash.Handle<CustomCollisionEntity> handle : colliders.values()) {
+                int position = index++;
+                if (pass == 0 && position < start) {
+                    continue;
+                }
+                if (pass == 1 && position >= start) {
+                    break;
+                }
+                CustomCollisionEntity collider = handle.value;
+                if (overBudget && !collider.isRemoved()) {
+                    handle.id = -1;
+                    if (firstDeferred < 0) {
+                        firstDeferred = position;
+                    }
+                    if (!collider.getActivity().isDormant()) {
+                        metrics.deferredColliders++;
+                    }
+                    continue;
+                }
+                if (!refreshCollider(handle, metrics, debug)) {
+                    handle.id = -1;
+                    continue;
+                }
+                handle.id = active.size();
+                active.add(collider);
+                if (budget > 0) {
+                    overBudget = overBudget(phaseStart, budget);
+                }
+            }
+        }
+        budgetCursor = Math.max(firstDeferred, 0);
+        if (active.isEmpty()) {
+            // Everything is asleep
+            debugLog.endTick(world, 0);
+            return;
+        }
+        phaseStart = endPhase(CollisionMetrics.PHASE_TRANSFORMS, phaseStart);
+
+        // Step 2: Broad phase, one entity query per occupied cell
+        for (Long2ObjectMap.Entry<List<ColliderSpatialHash.Handle<CustomCollisionEntity>>> cell : broadPhase.cells()) {
+            collectCandidates(cell.getLongKey(), cell.getValue());
+        }
+        metrics.candidates += pairs.size();
+        phaseStart = endPhase(CollisionMetrics.PHASE_BROAD, phaseStart);
+
+        // Step 3: Narrow phase. Gather a snapshot, run the SAT work on it (in parallel when it is
+        // worth it), then apply the results serially in a fixed order.
+        pairs.group(active.size());
+        gatherPairs();
+        results.reset(pairs.size());
+        if (pairs.size() >= PARALLEL_THRESHOLD && active.size() > 1) {
+            NARROW_PHASE_POOL.invoke(new NarrowPhaseTask(0, active.size()));
+        } else {
+            narrowPhase(0, active.size());
+        }
+        phaseStart = endPhase(CollisionMetrics.PHASE_NARROW, phaseStart);
+        if (trace != null) {
+            // Not part of any phase's time
+            recordTrace();
+            phaseStart = System.nanoTime();
+        }
+        applyResults(metrics);
+        phaseStart = endPhase(CollisionMetrics.PHASE_APPLY, phaseStart);
+
+        // Step 4: Collider-collider pass, each unordered pair tested once
+        for (Long2ObjectMap.Entry<List<ColliderSpatialHash.Handle<CustomCollisionEntity>>> cell : broadPhase.cells()) {
+            collideColliders(cell.getLongKey(), cell.getValue(), metrics);
+        }
+        // The cell lists can't change while they are being walked, so the moved colliders are
+        // re-bounded afterwards
+        for (int i = 0; i < separated.size(); i++) {
+            ColliderSpatialHash.Handle<CustomCollisionEntity> handle = separated.get(i);
+            broadPhase.update(handle, queryBounds(handle.value));
+        }
+        separated.clear();
+        endPhase(CollisionMetrics.PHASE_COLLIDERS, phaseStart);
+
+        updateDormancy();
+        updateCost();
+
+        CollisionMetrics.endTick(active.size(), phaseNanos);
+        debugLog.endTick(world, active.size());
+        pairs.clear();
+        active.clear();
+    }
+
+    // --- Tracing ---
+
+    /**
+     * Starts recording this world's narrow-phase input and results into {@code writer}, replacing
+     * (and finishing) any trace already running.
+     */
+    public void startTrace(CollisionTraceWriter writer) {
+        stopTrace();
+        trace = writer;
+    }
+
+    /**
+     * Finishes the running trace, if any.
+     *
+     * @return the finished trace, or null if none was running.
+     */
+    public CollisionTraceWriter stopTrace() {
+        CollisionTraceWriter writer = trace;
+        trace = null;
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                LOGGER.error("Could not finish collision trace {}", writer.getFile(), e);
+            }
+        }
+        return writer;
+    }
+
+    public CollisionTraceWriter getTrace() {
+        return trace;
+    }
+
+    /**
+     * Writes this tick's candidates and narrow-phase results to the trace. Runs on the server
+     * thread between the narrow phase and the apply step, so every candidate is still where the
+     * narrow phase saw it.
+     */
+    private void recordTrace() {
+        try {
+            trace.beginTick(world.getTime());
+            for (int i = 0; i < active.size(); i++) {
+                int start = pairs.start(i), end = pairs.end(i);
+                if (start == end) {
+                    continue;
+                }
+                CustomCollisionEntity collider = active.get(i);
+                trace.collider(collider.getId(), collider.getShape().getMinHalfExtent(),
+                        collider.getShape().getPartCount(), collider.getObbData(), end - start);
+                for (int j = start; j < end; j++) {
+                    double minX = pairBoxes.get(AabbBuffer.MIN_X, j);
+                    double minY = pairBoxes.get(AabbBuffer.MIN_Y, j);
+                    double minZ = pairBoxes.get(AabbBuffer.MIN_Z, j);
+                    double maxX = pairBoxes.get(AabbBuffer.MAX_X, j);
+                    double maxY = pairBoxes.get(AabbBuffer.MAX_Y, j);
+                    double maxZ = pairBoxes.get(AabbBuffer.MAX_Z, j);
+                    // Recomputed for the relative motion, which the narrow phase does not keep
+                    collider.needsSweep(minX, minY, minZ, maxX, maxY, maxZ,
+                            pairMoves[3 * j], pairMoves[3 * j + 1], pairMoves[3 * j + 2]);
+                    trace.pair(pairs.get(j).getId(), minX, minY, minZ, maxX, maxY, maxZ,
+                            collider.getSweepMotionX(), collider.getSweepMotionY(), collider.getSweepMotionZ(),
+                            results.getKind(j), results.getNormalX(j), results.getNormalY(j), results.getNormalZ(j),
+                            results.getAmount(j));
+                }
+            }
+            trace.endTick();
+        } catch (IOException e) {
+            LOGGER.error("Collision trace {} failed, stopping it", trace.getFile(), e);
+            stopTrace();
+            return;
+        }
+        if (trace.isFull()) {
+            CollisionTraceWriter writer = stopTrace();
+            LOGGER.info("Collision trace of {} ticks ({} pairs) written to {}",
+                    writer.getTicks(), writer.getPairs(), writer.getFile());
+        }
+    }
+
+    /**
+     * Wakes a sleeping collider if something came near, then refreshes its transform, pushes it out
+     * of terrain and moves it in the broad phase.
+     *
+     * @return whether the collider takes part in this tick's pass.
+     */
+    private boolean refreshCollider(ColliderSpatialHash.Handle<CustomCollisionEntity> handle,
+                                    CollisionMetrics.Recorder metrics, boolean debug) {
+        CustomCollisionEntity collider = handle.value;
+        if (collider.isRemoved()) {
+            return false;
+        }
+        ColliderActivity activity = collider.getActivity();
+        if (activity.isDormant()) {
+            // The only per-tick cost of a sleeping collider
+            if (!activity.shouldWake(collider.getX(), collider.getY(), collider.getZ())) {
+                return false;
+            }
+            dormancy.unwatch(collider);
+            activity.wake();
+        }
+        // Movement queries may already have rebuilt the transform this tick, so ask whether it
+        // changed since the broad phase last saw it rather than whether this call rebuilt it
+        collider.updateTransform();
+        if (collider.resolveTerrainCollision(world)) {
+            metrics.terrainPushes++;
+            if (debug) {
+                debugLog.recordTerrain(collider);
+            }
+        }
+        if (collider.consumeTransformChange()) {
+            broadPhase.update(handle, queryBounds(collider));
+            wakeTouched(handle);
+        }
+        return true;
+    }
+
+    // --- Tick budget ---
+
+    /**
+     * Whether the awake colliders taken so far fill the tick budget: the time already spent this
+     * tick plus the estimated pass cost of each of them. The measured time alone stops an
+     * expensive tick the smoothed estimate has not caught up with yet.
+     */
+    private boolean overBudget(long tickStart, long budget) {
+        long elapsed = System.nanoTime() - tickStart;
+        return elapsed + active.size() * nanosPerCollider >= budget;
+    }
+
+    /**
+     * Folds this tick's pass time into the estimated cost per awake collider.
+     */
+    private void updateCost() {
+        long passNanos = 0;
+        for (long nanos : phaseNanos) {
+            passNanos += nanos;
+        }
+        double sample = (double) passNanos / active.size();
+        nanosPerCollider = nanosPerCollider <= 0.0 ? sample
+                : nanosPerCollider + (sample - nanosPerCollider) * COST_SMOOTHING;
+    }
+
+    private long endPhase(int phase, long phaseStart) {
+        long now = System.nanoTime();
+        phaseNanos[phase] = now - phaseStart;
+        return now;
+    }
+
+    /**
+     * Wakes the dormant colliders a moving collider now reaches. Dormant colliders stay in the
+     * broad phase with their spin bounds, so this also covers shapes that kept spinning while asleep.
+     */
+    private void wakeTouched(ColliderSpatialHash.Handle<CustomCollisionEntity> handle) {
+        broadPhase.query(handle.getBounds(), other -> {
+            if (other != handle && other.value.getActivity().isDormant()) {
+                other.value.getActivity().requestWake();
+            }
+        });
+    }
+
+    /**
+     * Counts idle ticks and puts colliders to sleep once they have been idle long enough.
+     */
+    private void updateDormancy() {
+        for (int i = 0; i < active.size(); i++) {
+            CustomCollisionEntity collider = active.get(i);
+            ColliderActivity activity = collider.getActivity();
+            if (pairs.end(i) > pairs.start(i)) {
+                activity.busy();
+            } else if (activity.idle() >= DORMANT_AFTER_TICKS && !collider.isRemoved()) {
+                trySleep(collider, activity);
+            }
+        }
+    }
+
+    /**
+     * A collider watches every chunk section its spin bounds (plus margin) touch. An entity already
+     * inside one of them could walk up to it without entering a new section, so it only goes to
+     * sleep while those sections are empty; otherwise it tries again after another idle period.
+     */
+    private void trySleep(CustomCollisionEntity collider, ColliderActivity activity) {
+        // Woken this far outside the region the shape can spin through
+        Box rest = collider.getSpinBounds().expand(SWEEP_MARGIN + settings.getQueryMargin());
+        int size = ColliderSpatialHash.CELL_SIZE;
+        Box watched = new Box(
+                ColliderSpatialHash.cellCoord(rest.minX) * size,
+                ColliderSpatialHash.cellCoord(rest.minY) * size,
+                ColliderSpatialHash.cellCoord(rest.minZ) * size,
+                (ColliderSpatialHash.cellCoord(rest.maxX) + 1) * size,
+                (ColliderSpatialHash.cellCoord(rest.maxY) + 1) * size,
+                (ColliderSpatialHash.cellCoord(rest.maxZ) + 1) * size);
+        if (!world.getOtherEntities(collider, watched, CANDIDATE_FILTER).isEmpty()) {
+            activity.busy();
+            return;
+        }
+
+        activity.sleep(collider.getX(), collider.getY(), collider.getZ());
+        dormancy.watch(collider, rest);
+        ColliderSpatialHash.Handle<CustomCollisionEntity> handle = colliders.get(collider);
+        if (handle != null) {
+            broadPhase.update(handle, rest);
+        }
+    }
+
+    /**
+     * Snapshots every candidate's box and movement, so the narrow phase never touches live entities.
+     */
+    private void gatherPairs() {
+        int count = pairs.size();
+        pairBoxes.clear();
+        if (pairMoves.length < 3 * count) {
+            pairMoves = new double[3 * Math.max(count, pairMoves.length / 3 * 2)];
+        }
+        for (int j = 0; j < count; j++) {
+            Entity other = pairs.get(j);
+            pairBoxes.add(other.getBoundingBox());
+            pairMoves[3 * j] = other.getX() - other.prevX;
+            pairMoves[3 * j + 1] = other.getY() - other.prevY;
+            pairMoves[3 * j + 2] = other.getZ() - other.prevZ;
+        }
+    }
+
+    /**
+     * Runs the narrow phase for colliders {@code [from, to)}. Reads only the gathered snapshot and the
+     * colliders' own transforms, and writes only those colliders' {@link PairResults} slots, so disjoint
+     * collider ranges can run on different threads.
+     */
+    private void narrowPhase(int from, int to) {
+        NarrowPhaseScratch scratch = SCRATCH.get();
+        CollisionMetrics.Recorder metrics = CollisionMetrics.recorder();
+        for (int i = from; i < to; i++) {
+            if (pairs.start(i) != pairs.end(i)) {
+                long start = System.nanoTime();
+                narrowPhase(i, scratch, metrics);
+                metrics.colliderNanos.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void narrowPhase(int i, NarrowPhaseScratch scratch, CollisionMetrics.Recorder metrics) {
+        int start = pairs.start(i);
+        int end = pairs.end(i);
+
+        // Each collider against its own run of candidates in one batch. The shape's bounding sphere
+        // drops candidates before any of its parts are tested.
+        CustomCollisionEntity collider = active.get(i);
+        SatCollisionHelper.Contact contact = collider.getContact();
+        int parts = collider.getShape().getPartCount();
+        AabbBuffer candidateBoxes = scratch.candidateBoxes;
+        candidateBoxes.clear();
+        for (int j = start; j < end; j++) {
+            double minX = pairBoxes.get(AabbBuffer.MIN_X, j);
+            double minY = pairBoxes.get(AabbBuffer.MIN_Y, j);
+            double minZ = pairBoxes.get(AabbBuffer.MIN_Z, j);
+            double maxX = pairBoxes.get(AabbBuffer.MAX_X, j);
+            double maxY = pairBoxes.get(AabbBuffer.MAX_Y, j);
+            double maxZ = pairBoxes.get(AabbBuffer.MAX_Z, j);
+
+            if (collider.needsSweep(minX, minY, minZ, maxX, maxY, maxZ,
+                    pairMoves[3 * j], pairMoves[3 * j + 1], pairMoves[3 * j + 2])) {
+                // Fast movers are swept over the whole tick instead of batch-tested where they ended up.
+                // A hit at time 0 means they already overlapped at the start, which the MTV handles.
+                metrics.satTests += parts;
+                if (collider.sweptContact(minX, minY, minZ, maxX, maxY, maxZ) && contact.time > 0.0) {
+                    results.setImpact(j, contact,
+                            collider.getSweepMotionX(), collider.getSweepMotionY(), collider.getSweepMotionZ());
+                    metrics.hits++;
+                } else if (collider.sphereIntersects(minX, minY, minZ, maxX, maxY, maxZ)
+                        && collider.partsContact(minX, minY, minZ, maxX, maxY, maxZ)) {
+                    results.setPush(j, contact);
+                    metrics.satTests += parts;
+                    metrics.hits++;
+                }
+                continue;
+            }
+
+            if (collider.sphereIntersects(minX, minY, minZ, maxX, maxY, maxZ)) {
+                scratch.addCandidate(j, minX, minY, minZ, maxX, maxY, maxZ);
+            }
+        }
+
+        int count = candidateBoxes.size();
+        if (count <= SCALAR_CANDIDATES) {
+            scalarTest(collider, scratch, count, metrics);
+            return;
+        }
+        collider.endAxisPass();
+        double[] depths = scratch.depths(count);
+        int hits = collider.batchTest(candidateBoxes, depths);
+        metrics.satTests += (long) count * parts;
+        metrics.hits += hits;
+
+        // Sample which axis the early-out test would have stopped at (none for hits)
+        for (int k = 0; k < count; k++) {
+            if (metrics.sampleAxis()) {
+                metrics.recordAxis(SatCollisionHelper.obbAabbSeparatingAxis(collider.getObbData(), 0,
+                        candidateBoxes.get(AabbBuffer.MIN_X, k), candidateBoxes.get(AabbBuffer.MIN_Y, k),
+                        candidateBoxes.get(AabbBuffer.MIN_Z, k), candidateBoxes.get(AabbBuffer.MAX_X, k),
+                        candidateBoxes.get(AabbBuffer.MAX_Y, k), candidateBoxes.get(AabbBuffer.MAX_Z, k)));
+            }
+        }
+
+        // Only the (usually few) intersecting candidates go on to the contact query
+        for (int k = 0; hits > 0 && k < count; k++) {
+            if (depths[k] >= 0.0) {
+                hits--;
+                metrics.satTests += parts;
+                if (collider.partsContact(
+                        candidateBoxes.get(AabbBuffer.MIN_X, k), candidateBoxes.get(AabbBuffer.MIN_Y, k),
+                        candidateBoxes.get(AabbBuffer.MIN_Z, k), candidateBoxes.get(AabbBuffer.MAX_X, k),
+                        candidateBoxes.get(AabbBuffer.MAX_Y, k), candidateBoxes.get(AabbBuffer.MAX_Z, k))) {
+                    results.setPush(scratch.candidateIndex[k], contact);
+                }
+            }
+        }
+    }
+
+    /**
+     * The narrow phase for a collider with few candidates: early-out SAT per candidate, starting
+     * at the axis that separated the pair last tick, instead of the branchless 15-axis batch.
+     */
+    private void scalarTest(CustomCollisionEntity collider, NarrowPhaseScratch scratch, int count,
+                            CollisionMetrics.Recorder metrics) {
+        AabbBuffer candidateBoxes = scratch.candidateBoxes;
+        int parts = collider.getShape().getPartCount();
+        for (int k = 0; k < count; k++) {
+            int j = scratch.candidateIndex[k];
+            double minX = candidateBoxes.get(AabbBuffer.MIN_X, k);
+            double minY = candidateBoxes.get(AabbBuffer.MIN_Y, k);
+            double minZ = candidateBoxes.get(AabbBuffer.MIN_Z, k);
+            double maxX = candidateBoxes.get(AabbBuffer.MAX_X, k);
+            double maxY = candidateBoxes.get(AabbBuffer.MAX_Y, k);
+            double maxZ = candidateBoxes.get(AabbBuffer.MAX_Z, k);
+            metrics.satTests += parts;
+            if (collider.partsIntersect(pairs.get(j).getId(), minX, minY, minZ, maxX, maxY, maxZ, metrics)) {
+                metrics.hits++;
+                metrics.satTests += parts;
+                if (collider.partsContact(minX, minY, minZ, maxX, maxY, maxZ)) {
+                    results.setPush(j, collider.getContact());
+                }
+            }
+        }
+        collider.endAxisPass();
+    }
+
+    /**
+     * Moves the entities the narrow phase found, on the server thread, collider by collider and in
+     * broad-phase order within each collider. The corrections are accumulated per entity and
+     * applied once at the end (see {@link PushAccumulator}).
+     * <p>
+     * Pushes over the {@code CollisionMaxPushes} cap wait for the next tick, which starts at the
+     * first collider that had to wait so the same colliders don't use up the cap every tick. If
+     * that collider sits out the next pass, it starts at the beginning instead.
+     * Impacts are always applied: by the next tick the entity has already passed through.
+     */
+    private void applyResults(CollisionMetrics.Recorder metrics) {
+        boolean debug = debugLog.isEnabled();
+        int maxPushes = settings.getMaxPushes();
+        int applied = 0;
+        int count = active.size();
+        // A handle's id is its collider's index in active this tick, or -1 if it is not in the pass
+        ColliderSpatialHash.Handle<CustomCollisionEntity> resume = pushResume == null ? null : colliders.get(pushResume);
+        int start = resume != null && resume.id >= 0 ? resume.id : 0;
+        CustomCollisionEntity firstDeferred = null;
+        for (int n = 0; n < count; n++) {
+            int i = (start + n) % count;
+            CustomCollisionEntity collider = active.get(i);
+            if (debug && pairs.end(i) > pairs.start(i)) {
+                debugLog.recordCandidates(collider, pairs.end(i) - pairs.start(i));
+            }
+            for (int j = pairs.start(i), end = pairs.end(i); j < end; j++) {
+                byte kind = results.getKind(j);
+                if (kind == PairResults.NONE) {
+                    continue;
+                }
+                if (kind == PairResults.PUSH && maxPushes > 0) {
+                    // Over the cap, the overlap is still there to be found again next tick
+                    if (applied >= maxPushes) {
+                        if (firstDeferred == null) {
+                            firstDeferred = collider;
+                        }
+                        metrics.deferredPushes++;
+                        continue;
+                    }
+                    applied++;
+                }
+                Entity other = pairs.get(j);
+                if (!other.isAlive()) {
+                    continue;
+                }
+                if (kind == PairResults.PUSH) {
+                    collider.pushOut(pushes, other,
+                            results.getNormalX(j), results.getNormalY(j), results.getNormalZ(j), results.getAmount(j),
+                            settings.getPushFactor());
+                    metrics.pushes++;
+                    if (debug) {
+                        debugLog.recordPush(collider);
+                    }
+                } else {
+                    collider.stopAtImpact(pushes, other,
+                            results.getNormalX(j), results.getNormalY(j), results.getNormalZ(j), results.getAmount(j),
+                            results.getMotionX(j), results.getMotionY(j), results.getMotionZ(j));
+                    metrics.impacts++;
+                    if (debug) {
+                        debugLog.recordImpact(collider);
+                    }
+                }
+            }
+        }
+
+        pushResume = firstDeferred;
+
+        // One combined correction (and at most one sync) per entity, however many colliders hit it
+        if (!pushes.isEmpty()) {
+            pushes.flush(settings.getTeleportThreshold(), metrics);
+        }
+    }
+
+    /**
+     * Tests every pair of colliders listed in one cell. Only i < j is visited, and pairs that
+     * share several cells are only handled by the cell owning their overlap, so each unordered
+     * pair is tested exactly once per tick instead of once from each side.
+     */
+    private void collideColliders(long key, List<ColliderSpatialHash.Handle<CustomCollisionEntity>> cellColliders,
+                                  CollisionMetrics.Recorder metrics) {
+        for (int i = 0, n = cellColliders.size(); i < n - 1; i++) {
+            ColliderSpatialHash.Handle<CustomCollisionEntity> first = cellColliders.get(i);
+            if (first.id < 0) {
+                continue;
+            }
+            for (int j = i + 1; j < n; j++) {
+                ColliderSpatialHash.Handle<CustomCollisionEntity> second = cellColliders.get(j);
+                if (second.id >= 0
+                        && first.getBounds().intersects(second.getBounds())
+                        && ColliderSpatialHash.isOwnerCell(key, first.getBounds(), second.getBounds())
+                        && first.value.resolveColliderCollision(second.value)) {
+                    metrics.colliderContacts++;
+                    separated.add(first);
+                    separated.add(second);
+                    first.value.getActivity().busy();
+                    second.value.getActivity().busy();
+                    if (debugLog.isEnabled()) {
+                        debugLog.recordColliderContact(first.value, second.value);
+                    }
+                }
+            }
+        }
+    }
+
+    private void collectCandidates(long key, List<ColliderSpatialHash.Handle<CustomCollisionEntity>> cellColliders) {
+        // Union of the live collider bounds listed in this cell, clipped to the cell itself
+        Box cellQuery = ColliderSpatialHash.cellQuery(key, cellColliders);
+        if (cellQuery == null) {
+            return;
+        }
+        // Widened so entities that moved through the region this tick are found too
+        Box query = cellQuery.expand(SWEEP_MARGIN);
+
+        List<Entity> nearbyEntities = world.getOtherEntities((Entity) null, query, CANDIDATE_FILTER);
+        for (Entity other : nearbyEntities) {
+            // The box over the entity's whole move this tick, so a fast entity that passed through
+            // a collider is still paired with it
+            Box otherAabb = other.getBoundingBox().stretch(
+                    other.prevX - other.getX(), other.prevY - other.getY(), other.prevZ - other.getZ());
+            for (int i = 0, n = cellColliders.size(); i < n; i++) {
+                ColliderSpatialHash.Handle<CustomCollisionEntity> handle = cellColliders.get(i);
+                if (handle.id >= 0
+                        && handle.getBounds().intersects(otherAabb)
+                        && ColliderSpatialHash.isOwnerCell(key, handle.getBounds(), otherAabb)) {
+                    pairs.add(handle.id, other);
+                }
+            }
+        }
+    }
+
+    /**
+     * The region a collider can touch this tick: the exact world-axis projection of its rotated
+     * OBB, swept over the collider's own movement, with the query margin around it so touching
+     * entities are still picked up.
+     */
+    private Box queryBounds(CustomCollisionEntity collider) {
+        return collider.getSweptObbBounds().expand(settings.getQueryMargin());
+    }
+
+    private static ForkJoinPool createNarrowPhasePool() {
+        // Leave one core to the server thread, which waits on the pool while it works
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger counter = new AtomicInteger();
+        ClassLoader classLoader = CollisionWorld.class.getClassLoader();
+        return new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("UCE Narrow Phase #" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Splits a collider range in two by pair count until each half is small enough to run directly.
+     */
+    private final class NarrowPhaseTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        NarrowPhaseTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int firstPair = pairs.start(from);
+            int lastPair = pairs.end(to - 1);
+            if (to - from < 2 || lastPair - firstPair <= SPLIT_PAIRS) {
+                narrowPhase(from, to);
+                return;
+            }
+
+            // First collider whose pairs start past the middle, kept strictly inside the range
+            int middlePair = (firstPair + lastPair) >>> 1;
+            int mid = from + 1;
+            while (mid < to - 1 && pairs.start(mid) < middlePair) {
+                mid++;
+            }
+            invokeAll(new NarrowPhaseTask(from, mid), new NarrowPhaseTask(mid, to));
+        }
+    }
+
+    /**
+     * Per-thread buffers for the batch test, so workers never share them.
+     */
+    private static final class NarrowPhaseScratch {
+        final AabbBuffer candidateBoxes = new AabbBuffer();
+        int[] candidateIndex = new int[32]; // Pair index of each box in candidateBoxes
+        private double[] depths = new double[32];
+
+        void addCandidate(int pair, double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+            if (candidateIndex.length == candidateBoxes.size()) {
+                candidateIndex = Arrays.copyOf(candidateIndex, candidateIndex.length * 2);
+            }
+            candidateIndex[candidateBoxes.size()] = pair;
+            candidateBoxes.add(minX, minY, minZ, maxX, maxY, maxZ);
+        }
+
+        double[] depths(int count) {
+            if (depths.length < count) {
+                depths = new double[candidateBoxes.stride()];
+            }
+            return depths;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+import org.spifftech.ultimatecollisionengine.entity.CustomCollisionEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dormant colliders by the chunk sections they watch. Entities entering a section wake every
+ * collider listed under it; while no collider is dormant a notification is one empty map lookup.
+ */
+public class DormancyIndex {
+
+    private final Long2ObjectOpenHashMap<List<CustomCollisionEntity>> sections = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * Lists a collider under every section overlapping {@code region}. The sections are the same
+     * 16-block cells as the broad phase's.
+     */
+    public void watch(CustomCollisionEntity collider, Box region) {
+        LongArrayList watched = collider.getActivity().getWatchedSections();
+        int minX = ColliderSpatialHash.cellCoord(region.minX);
+        int minY = ColliderSpatialHash.cellCoord(region.minY);
+        int minZ = ColliderSpatialHash.cellCoord(region.minZ);
+        int maxX = ColliderSpatialHash.cellCoord(region.maxX);
+        int maxY = ColliderSpatialHash.cellCoord(region.maxY);
+        int maxZ = ColliderSpatialHash.cellCoord(region.maxZ);
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    long key = ChunkSectionPos.asLong(x, y, z);
+                    List<CustomCollisionEntity> list = sections.get(key);
+                    if (list == null) {
+                        list = new ArrayList<>(2);
+                        sections.put(key, list);
+                    }
+                    list.add(collider);
+                    watched.add(key);
+                }
+            }
+        }
+    }
+
+    public void unwatch(CustomCollisionEntity collider) {
+        LongArrayList watched = collider.getActivity().getWatchedSections();
+        for (int i = 0; i < watched.size(); i++) {
+            long key = watched.getLong(i);
+            List<CustomCollisionEntity> list = sections.get(key);
+            if (list != null && list.remove(collider) && list.isEmpty()) {
+                sections.remove(key);
+            }
+        }
+        watched.clear();
+    }
+
+    /**
+     * Wakes the colliders watching a section an entity has just entered.
+     */
+    public void onSectionEntered(long sectionKey) {
+        if (sections.isEmpty()) {
+            return;
+        }
+        List<CustomCollisionEntity> list = sections.get(sectionKey);
+        if (list != null) {
+            for (int i = 0; i < list.size(); i++) {
+                list.get(i).getActivity().requestWake();
+            }
+        }
+    }
+}
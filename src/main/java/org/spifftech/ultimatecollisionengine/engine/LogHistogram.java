@@ -0,0 +1,95 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size histogram of non-negative longs (e.g. nanoseconds) in power-of-two buckets:
+ * bucket b holds values in {@code [2^b, 2^(b+1))}, bucket 0 also holds 0.
+ * Recording is a couple of arithmetic ops and never allocates.
+ */
+public class LogHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final long[] buckets = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        buckets[bucket(value)]++;
+        count++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Adds another histogram's contents to this one.
+     */
+    public void merge(LogHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] += other.buckets[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public void reset() {
+        Arrays.fill(buckets, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (0-100), so at most a factor of 2 high.
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(max, i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1);
+            }
+        }
+        return max;
+    }
+
+    public long getBucket(int bucket) {
+        return buckets[bucket];
+    }
+
+    public int getBucketCount() {
+        return BUCKETS;
+    }
+
+    private static int bucket(long value) {
+        return value == 0 ? 0 : 63 - Long.numberOfLeadingZeros(value);
+    }
+}
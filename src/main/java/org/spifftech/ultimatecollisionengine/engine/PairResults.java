@@ -0,0 +1,101 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+import org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper;
+
+import java.util.Arrays;
+
+/**
+ * Narrow-phase output, one slot per grouped candidate pair (see {@link CandidatePairs#get(int)}).
+ * Workers only write the slots of their own colliders, so no slot is shared between threads;
+ * the apply step then reads them back in pair order on the server thread.
+ */
+public class PairResults {
+
+    public static final byte NONE = 0;
+    // Overlapping: push out along the normal by the depth
+    public static final byte PUSH = 1;
+    // Tunnelled: undo the motion after the time of impact
+    public static final byte IMPACT = 2;
+
+    // Resolved entities are moved this much further out, so they do not start the next tick touching
+    public static final double SEPARATION = 0.001;
+
+    private byte[] kind = new byte[64];
+    private double[] normalX = new double[64];
+    private double[] normalY = new double[64];
+    private double[] normalZ = new double[64];
+    private double[] amount = new double[64]; // Depth for PUSH, time of impact for IMPACT
+    private double[] motionX = new double[64];
+    private double[] motionY = new double[64];
+    private double[] motionZ = new double[64];
+
+    /**
+     * Makes room for {@code size} pairs and marks them all {@link #NONE}.
+     */
+    public void reset(int size) {
+        if (kind.length < size) {
+            int capacity = Math.max(size, kind.length * 2);
+            kind = new byte[capacity];
+            normalX = new double[capacity];
+            normalY = new double[capacity];
+            normalZ = new double[capacity];
+            amount = new double[capacity];
+            motionX = new double[capacity];
+            motionY = new double[capacity];
+            motionZ = new double[capacity];
+        } else {
+            Arrays.fill(kind, 0, size, NONE);
+        }
+    }
+
+    public void setPush(int pair, SatCollisionHelper.Contact contact) {
+        kind[pair] = PUSH;
+        normalX[pair] = contact.normalX;
+        normalY[pair] = contact.normalY;
+        normalZ[pair] = contact.normalZ;
+        amount[pair] = contact.depth;
+    }
+
+    public void setImpact(int pair, SatCollisionHelper.Contact contact, double moveX, double moveY, double moveZ) {
+        kind[pair] = IMPACT;
+        normalX[pair] = contact.normalX;
+        normalY[pair] = contact.normalY;
+        normalZ[pair] = contact.normalZ;
+        amount[pair] = contact.time;
+        motionX[pair] = moveX;
+        motionY[pair] = moveY;
+        motionZ[pair] = moveZ;
+    }
+
+    public byte getKind(int pair) {
+        return kind[pair];
+    }
+
+    public double getNormalX(int pair) {
+        return normalX[pair];
+    }
+
+    public double getNormalY(int pair) {
+        return normalY[pair];
+    }
+
+    public double getNormalZ(int pair) {
+        return normalZ[pair];
+    }
+
+    public double getAmount(int pair) {
+        return amount[pair];
+    }
+
+    public double getMotionX(int pair) {
+        return motionX[pair];
+    }
+
+    public double getMotionY(int pair) {
+        return motionY[pair];
+    }
+
+    public double getMotionZ(int pair) {
+        return motionZ[pair];
+    }
+}
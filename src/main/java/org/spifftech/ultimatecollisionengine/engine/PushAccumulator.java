@@ -0,0 +1,149 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.Arrays;
+
+/**
+ * Collects every correction the colliders of one world want to make to an entity during a tick
+ * and applies them as one, so an entity touched by several colliders is moved and synced once.
+ * <p>
+ * Per axis, the largest positive and the most negative displacement are kept and summed: two
+ * colliders pushing the same way do not push twice as far, while opposite pushes cancel out.
+ * Push impulses are combined the same way. The part of the velocity driving into any contact is
+ * removed as each contact is added.
+ * <p>
+ * {@link #flush} moves non-players with one {@code setPosition}. Players only get a velocity
+ * update: a small displacement is folded into the impulse and the client moves the player out
+ * itself on its next tick. Only corrections longer than the teleport threshold snap the player to
+ * an absolute position, since every teleport costs a round trip and rubber-bands the player.
+ */
+public class PushAccumulator {
+
+    // Per-slot arrays; slot s holds component k of a vector at [3 * s + k]
+    private Entity[] entities = new Entity[16];
+    private double[] displacementMax = new double[48];
+    private double[] displacementMin = new double[48];
+    private double[] impulseMax = new double[48];
+    private double[] impulseMin = new double[48];
+    private double[] velocity = new double[48];
+    private final Int2IntOpenHashMap slots = new Int2IntOpenHashMap();
+    private int size;
+
+    public PushAccumulator() {
+        slots.defaultReturnValue(-1);
+    }
+
+    /**
+     * Records one correction for an entity: a displacement, the contact normal (pointing out of
+     * the collider; velocity against it is removed) and a velocity impulse to add on top.
+     */
+    public void add(Entity entity, double dx, double dy, double dz,
+                    double normalX, double normalY, double normalZ,
+                    double impulseX, double impulseY, double impulseZ) {
+        int s = slot(entity);
+        int v = 3 * s;
+        combine(displacementMax, displacementMin, v, dx, dy, dz);
+        combine(impulseMax, impulseMin, v, impulseX, impulseY, impulseZ);
+
+        double intoBox = velocity[v] * normalX + velocity[v + 1] * normalY + velocity[v + 2] * normalZ;
+        if (intoBox < 0) {
+            velocity[v] -= normalX * intoBox;
+            velocity[v + 1] -= normalY * intoBox;
+            velocity[v + 2] -= normalZ * intoBox;
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Applies every entity's combined correction and clears the accumulator.
+     *
+     * @param teleportThreshold corrections longer than this (in blocks) teleport players to an
+     *                          absolute position instead of moving them through their velocity.
+     */
+    public void flush(double teleportThreshold, CollisionMetrics.Recorder metrics) {
+        for (int s = 0; s < size; s++) {
+            Entity entity = entities[s];
+            entities[s] = null;
+            if (!entity.isAlive()) {
+                continue;
+            }
+            int v = 3 * s;
+            double dx = displacementMax[v] + displacementMin[v];
+            double dy = displacementMax[v + 1] + displacementMin[v + 1];
+            double dz = displacementMax[v + 2] + displacementMin[v + 2];
+            double vx = velocity[v] + impulseMax[v] + impulseMin[v];
+            double vy = velocity[v + 1] + impulseMax[v + 1] + impulseMin[v + 1];
+            double vz = velocity[v + 2] + impulseMax[v + 2] + impulseMin[v + 2];
+
+            if (entity instanceof ServerPlayerEntity player) {
+                // The client owns the player's position. Small corrections ride on the velocity packet,
+                // which the client applies on top of its own movement; only large ones are worth an
+                // absolute teleport and the rubber-banding it causes.
+                if (dx * dx + dy * dy + dz * dz > teleportThreshold * teleportThreshold) {
+                    player.teleport(player.getX() + dx, player.getY() + dy, player.getZ() + dz);
+                    metrics.teleports++;
+                } else {
+                    vx += dx;
+                    vy += dy;
+                    vz += dz;
+                }
+            } else {
+                entity.setPosition(entity.getX() + dx, entity.getY() + dy, entity.getZ() + dz);
+            }
+            entity.setVelocity(new Vec3d(vx, vy, vz));
+            entity.velocityModified = true;
+            metrics.corrections++;
+        }
+        slots.clear();
+        size = 0;
+    }
+
+    private int slot(Entity entity) {
+        int s = slots.get(entity.getId());
+        if (s >= 0) {
+            return s;
+        }
+        if (size == entities.length) {
+            grow();
+        }
+        s = size++;
+        slots.put(entity.getId(), s);
+        entities[s] = entity;
+        int v = 3 * s;
+        Arrays.fill(displacementMax, v, v + 3, 0.0);
+        Arrays.fill(displacementMin, v, v + 3, 0.0);
+        Arrays.fill(impulseMax, v, v + 3, 0.0);
+        Arrays.fill(impulseMin, v, v + 3, 0.0);
+        Vec3d current = entity.getVelocity();
+        velocity[v] = current.x;
+        velocity[v + 1] = current.y;
+        velocity[v + 2] = current.z;
+        return s;
+    }
+
+    private static void combine(double[] max, double[] min, int v, double x, double y, double z) {
+        max[v] = Math.max(max[v], x);
+        max[v + 1] = Math.max(max[v + 1], y);
+        max[v + 2] = Math.max(max[v + 2], z);
+        min[v] = Math.min(min[v], x);
+        min[v + 1] = Math.min(min[v + 1], y);
+        min[v + 2] = Math.min(min[v + 2], z);
+    }
+
+    private void grow() {
+        int capacity = entities.length * 2;
+        entities = Arrays.copyOf(entities, capacity);
+        displacementMax = Arrays.copyOf(displacementMax, 3 * capacity);
+        displacementMin = Arrays.copyOf(displacementMin, 3 * capacity);
+        impulseMax = Arrays.copyOf(impulseMax, 3 * capacity);
+        impulseMin = Arrays.copyOf(impulseMin, 3 * capacity);
+        velocity = Arrays.copyOf(velocity, 3 * capacity);
+    }
+}
@@ -0,0 +1,71 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+
+/**
+ * Per-collider memory of which SAT axis separated each part from each nearby entity, keyed by
+ * entity id. Fed back into
+ * {@link org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper#obbAabbSeparatingAxis(double[], int, double, double, double, double, double, double, int)}
+ * so a pair that stays apart is usually rejected after one axis test per part.
+ * <p>
+ * Entries live for one pass: lookups read the previous pass, stores go into the current one and
+ * {@link #endPass()} swaps them. Pairs that were not candidates this pass (out of range, unloaded,
+ * now overlapping) simply drop out, and the map never holds more than {@link #MAX_ENTRIES}.
+ */
+public class SeparatingAxisCache {
+
+    // Axes of up to 16 parts, 4 bits each; 0xF (and so an all-ones word) means unknown
+    public static final long UNKNOWN = -1L;
+    private static final int MAX_PARTS = 16;
+    private static final int MAX_ENTRIES = 512;
+
+    private Int2LongOpenHashMap previous = new Int2LongOpenHashMap();
+    private Int2LongOpenHashMap current = new Int2LongOpenHashMap();
+
+    public SeparatingAxisCache() {
+        previous.defaultReturnValue(UNKNOWN);
+        current.defaultReturnValue(UNKNOWN);
+    }
+
+    /**
+     * The axes recorded for an entity last pass, or {@link #UNKNOWN}.
+     */
+    public long get(int entityId) {
+        return previous.get(entityId);
+    }
+
+    public void put(int entityId, long axes) {
+        if (current.size() < MAX_ENTRIES) {
+            current.put(entityId, axes);
+        }
+    }
+
+    /**
+     * Call once the collider has tested all of this pass's candidates.
+     */
+    public void endPass() {
+        Int2LongOpenHashMap swap = previous;
+        previous = current;
+        current = swap;
+        current.clear();
+    }
+
+    /**
+     * One part's axis from a packed word, or -1 if it is not known.
+     */
+    public static int axis(long axes, int part) {
+        if (part >= MAX_PARTS) {
+            return -1;
+        }
+        int axis = (int) (axes >>> (part * 4)) & 0xF;
+        return axis == 0xF ? -1 : axis;
+    }
+
+    public static long withAxis(long axes, int part, int axis) {
+        if (part >= MAX_PARTS) {
+            return axes;
+        }
+        int shift = part * 4;
+        return (axes & ~(0xFL << shift)) | ((long) (axis & 0xF) << shift);
+    }
+}
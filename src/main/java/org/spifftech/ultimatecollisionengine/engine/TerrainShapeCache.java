@@ -0,0 +1,196 @@
+package org.spifftech.ultimatecollisionengine.engine;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.util.shape.VoxelShapes;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+import org.spifftech.ultimatecollisionengine.boxcollision.AabbBuffer;
+
+import java.util.Arrays;
+
+/**
+ * Per-collider cache of the block collision boxes around it, in world coordinates.
+ * <p>
+ * The cache covers the requested block region plus {@link #PADDING} blocks, so a collider that
+ * spins or drifts a little keeps hitting it. It is keyed by the chunk sections it read: each
+ * section's chunk instance and {@link ChunkSectionRevisions revision} are re-checked every tick,
+ * and the world is only read again when one of them changed or the region left the cached range.
+ */
+public class TerrainShapeCache {
+
+    private static final int PADDING = 1;
+
+    private final AabbBuffer boxes = new AabbBuffer(64);
+    private final BoxCollector collector = new BoxCollector();
+    private final BlockPos.Mutable mutable = new BlockPos.Mutable();
+
+    private boolean valid;
+    private int minX, minY, minZ, maxX, maxY, maxZ; // Cached block range, inclusive
+
+    // The sections this cache was built from, and what they looked like at the time
+    private WorldChunk[] chunks = new WorldChunk[8];
+    private int[] chunkX = new int[8];
+    private int[] chunkZ = new int[8];
+    private int[] sectionIndex = new int[8];
+    private int[] revision = new int[8];
+    private int sectionCount;
+
+    /**
+     * Returns the collision boxes of every block overlapping {@code region} (and possibly a few more),
+     * re-reading the world only if the cache is stale.
+     */
+    public AabbBuffer get(ServerWorld world, Box region) {
+        int regionMinX = MathHelper.floor(region.minX);
+        int regionMinY = MathHelper.floor(region.minY);
+        int regionMinZ = MathHelper.floor(region.minZ);
+        int regionMaxX = MathHelper.floor(region.maxX);
+        int regionMaxY = MathHelper.floor(region.maxY);
+        int regionMaxZ = MathHelper.floor(region.maxZ);
+
+        if (!valid
+                || regionMinX < minX || regionMinY < minY || regionMinZ < minZ
+                || regionMaxX > maxX || regionMaxY > maxY || regionMaxZ > maxZ
+                || !sectionsUnchanged(world)) {
+            rebuild(world,
+                    regionMinX - PADDING, regionMinY - PADDING, regionMinZ - PADDING,
+                    regionMaxX + PADDING, regionMaxY + PADDING, regionMaxZ + PADDING);
+        }
+        return boxes;
+    }
+
+    public void invalidate() {
+        valid = false;
+        Arrays.fill(chunks, 0, sectionCount, null);
+        sectionCount = 0;
+    }
+
+    private boolean sectionsUnchanged(ServerWorld world) {
+        WorldChunk lastChunk = null;
+        int lastX = 0, lastZ = 0;
+        boolean looked = false;
+
+        for (int i = 0; i < sectionCount; i++) {
+            // Sections are recorded chunk by chunk, so one lookup covers a whole column
+            if (!looked || chunkX[i] != lastX || chunkZ[i] != lastZ) {
+                lastX = chunkX[i];
+                lastZ = chunkZ[i];
+                lastChunk = world.getChunkManager().getWorldChunk(lastX, lastZ);
+                looked = true;
+            }
+            if (lastChunk != chunks[i]) {
+                return false; // Loaded, unloaded or reloaded since
+            }
+            if (lastChunk != null
+                    && ((ChunkSectionRevisions) lastChunk).uce$getSectionRevision(sectionIndex[i]) != revision[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rebuild(ServerWorld world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        invalidate();
+        boxes.clear();
+
+        // Clamp vertically to the world for reading, there are no blocks outside it
+        int readMinY = Math.max(minY, world.getBottomY());
+        int readMaxY = Math.min(maxY, world.getTopY() - 1);
+
+        for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+            for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+                WorldChunk chunk = world.getChunkManager().getWorldChunk(cx, cz);
+                if (chunk == null) {
+                    // Not loaded: remember that, so the cache refreshes once it is
+                    record(null, cx, cz, -1, 0);
+                    continue;
+                }
+
+                for (int cy = readMinY >> 4; cy <= readMaxY >> 4; cy++) {
+                    int index = chunk.sectionCoordToIndex(cy);
+                    record(chunk, cx, cz, index, ((ChunkSectionRevisions) chunk).uce$getSectionRevision(index));
+
+                    ChunkSection section = chunk.getSection(index);
+                    if (section.isEmpty()) {
+                        continue; // All air
+                    }
+                    collectSection(world, section, cx, cy, cz, minX, readMinY, minZ, maxX, readMaxY, maxZ);
+                }
+            }
+        }
+
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        this.valid = true;
+    }
+
+    private void collectSection(ServerWorld world, ChunkSection section, int cx, int cy, int cz,
+                                int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        int startX = Math.max(minX, ChunkSectionPos.getBlockCoord(cx));
+        int startY = Math.max(minY, ChunkSectionPos.getBlockCoord(cy));
+        int startZ = Math.max(minZ, ChunkSectionPos.getBlockCoord(cz));
+        int endX = Math.min(maxX, ChunkSectionPos.getBlockCoord(cx) + 15);
+        int endY = Math.min(maxY, ChunkSectionPos.getBlockCoord(cy) + 15);
+        int endZ = Math.min(maxZ, ChunkSectionPos.getBlockCoord(cz) + 15);
+
+        for (int y = startY; y <= endY; y++) {
+            for (int z = startZ; z <= endZ; z++) {
+                for (int x = startX; x <= endX; x++) {
+                    BlockState state = section.getBlockState(x & 15, y & 15, z & 15);
+                    if (state.isAir()) {
+                        continue;
+                    }
+                    mutable.set(x, y, z);
+                    VoxelShape shape = state.getCollisionShape(world, mutable);
+                    if (shape.isEmpty()) {
+                        continue;
+                    }
+                    if (shape == VoxelShapes.fullCube()) {
+                        boxes.add(x, y, z, x + 1, y + 1, z + 1);
+                    } else {
+                        collector.x = x;
+                        collector.y = y;
+                        collector.z = z;
+                        shape.forEachBox(collector);
+                    }
+                }
+            }
+        }
+    }
+
+    private void record(WorldChunk chunk, int cx, int cz, int index, int sectionRevision) {
+        if (sectionCount == chunks.length) {
+            int size = sectionCount * 2;
+            chunks = Arrays.copyOf(chunks, size);
+            chunkX = Arrays.copyOf(chunkX, size);
+            chunkZ = Arrays.copyOf(chunkZ, size);
+            sectionIndex = Arrays.copyOf(sectionIndex, size);
+            revision = Arrays.copyOf(revision, size);
+        }
+        chunks[sectionCount] = chunk;
+        chunkX[sectionCount] = cx;
+        chunkZ[sectionCount] = cz;
+        sectionIndex[sectionCount] = index;
+        revision[sectionCount] = sectionRevision;
+        sectionCount++;
+    }
+
+    // Reused for every non-trivial shape, offsetting its local boxes to the block position
+    private final class BoxCollector implements VoxelShapes.BoxConsumer {
+        int x, y, z;
+
+        @Override
+        public void consume(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+            boxes.add(x + minX, y + minY, z + minZ, x + maxX, y + maxY, z + maxZ);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.spifftech.ultimatecollisionengine.engine.trace;
+
+import org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper;
+import org.spifftech.ultimatecollisionengine.engine.PairResults;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A recorded collision trace: for every traced tick, the world-space shape of each collider that
+ * had candidates and, per candidate, its box, its motion relative to the collider and the result
+ * the engine produced. That is everything the narrow phase reads, so a trace can be replayed
+ * without a server (see {@link TraceReplay}) and its results compared with the recorded ones.
+ * <p>
+ * File format, gzip-compressed, big-endian ({@link java.io.DataOutput}):
+ * <pre>
+ * header:   int MAGIC, short VERSION, UTF world id
+ * tick:     byte TICK, long world time, int collider count, then per collider:
+ *             int entity id, double min half extent, byte part count,
+ *             15 doubles per part (packed OBB, see SatCollisionHelper), int pair count, then per pair:
+ *               int entity id, 6 doubles box, 3 doubles relative motion, byte result kind,
+ *               and unless the kind is NONE: 3 doubles normal, double amount
+ * trailer:  byte END
+ * </pre>
+ * Result kinds and amounts are those of {@link PairResults}.
+ */
+public final class CollisionTrace {
+
+    public static final int MAGIC = 0x55434554; // "UCET"
+    public static final short VERSION = 1;
+    public static final byte TICK = 1;
+    public static final byte END = 0;
+
+    public static final String EXTENSION = ".uct";
+
+    private final String worldId;
+    private final List<Tick> ticks;
+
+    private CollisionTrace(String worldId, List<Tick> ticks) {
+        this.worldId = worldId;
+        this.ticks = ticks;
+    }
+
+    public String getWorldId() {
+        return worldId;
+    }
+
+    public List<Tick> getTicks() {
+        return ticks;
+    }
+
+    public long getPairCount() {
+        long pairs = 0;
+        for (Tick tick : ticks) {
+            pairs += tick.pairCount;
+        }
+        return pairs;
+    }
+
+    /**
+     * Reads a whole trace into memory. A trace cut off mid-tick (e.g. by a crash) keeps the
+     * ticks that were complete.
+     */
+    public static CollisionTrace read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a collision trace");
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException(file + " has trace version " + version + ", expected " + VERSION);
+            }
+            String worldId = in.readUTF();
+
+            List<Tick> ticks = new ArrayList<>();
+            try {
+                while (in.readByte() == TICK) {
+                    ticks.add(Tick.read(in));
+                }
+            } catch (EOFException e) {
+                // Truncated: keep what was complete
+            }
+            return new CollisionTrace(worldId, ticks);
+        }
+    }
+
+    /**
+     * One traced tick. Pairs are stored back to back in collider order; collider {@code i} owns
+     * pairs {@code [pairStart[i], pairStart[i + 1])}.
+     */
+    public static final class Tick {
+        public final long worldTime;
+        public final int colliderCount;
+        public final int[] colliderIds;
+        public final double[] minHalfExtents;
+        public final int[] partCounts;
+        public final double[][] obbData;
+        public final int[] pairStart;
+
+        public final int pairCount;
+        public final int[] entityIds;
+        public final double[] boxes;   // 6 per pair: min x, y, z, max x, y, z
+        public final double[] motions; // 3 per pair
+        public final byte[] kinds;
+        public final double[] normals; // 3 per pair
+        public final double[] amounts;
+
+        private Tick(long worldTime, int[] colliderIds, double[] minHalfExtents, int[] partCounts,
+                     double[][] obbData, int[] pairStart, PairList pairs) {
+            this.worldTime = worldTime;
+            this.colliderCount = colliderIds.length;
+            this.colliderIds = colliderIds;
+            this.minHalfExtents = minHalfExtents;
+            this.partCounts = partCounts;
+            this.obbData = obbData;
+            this.pairStart = pairStart;
+            this.pairCount = pairs.size;
+            this.entityIds = Arrays.copyOf(pairs.entityIds, pairs.size);
+            this.boxes = Arrays.copyOf(pairs.boxes, 6 * pairs.size);
+            this.motions = Arrays.copyOf(pairs.motions, 3 * pairs.size);
+            this.kinds = Arrays.copyOf(pairs.kinds, pairs.size);
+            this.normals = Arrays.copyOf(pairs.normals, 3 * pairs.size);
+            this.amounts = Arrays.copyOf(pairs.amounts, pairs.size);
+        }
+
+        private static Tick read(DataInputStream in) throws IOException {
+            long worldTime = in.readLong();
+            int colliderCount = in.readInt();
+
+            // Pair counts are only known collider by collider, so pairs go into a growable list first
+            int[] ids = new int[colliderCount];
+            double[] extents = new double[colliderCount];
+            int[] parts = new int[colliderCount];
+            double[][] obbs = new double[colliderCount][];
+            int[] starts = new int[colliderCount + 1];
+            PairList pairs = new PairList();
+            for (int i = 0; i < colliderCount; i++) {
+                ids[i] = in.readInt();
+                extents[i] = in.readDouble();
+                parts[i] = in.readUnsignedByte();
+                double[] obb = new double[SatCollisionHelper.OBB_STRIDE * parts[i]];
+                for (int k = 0; k < obb.length; k++) {
+                    obb[k] = in.readDouble();
+                }
+                obbs[i] = obb;
+                starts[i] = pairs.size;
+                int count = in.readInt();
+                for (int j = 0; j < count; j++) {
+                    pairs.read(in);
+                }
+            }
+            starts[colliderCount] = pairs.size;
+
+            return new Tick(worldTime, ids, extents, parts, obbs, starts, pairs);
+        }
+    }
+
+    private static final class PairList {
+        int size;
+        int[] entityIds = new int[16];
+        double[] boxes = new double[6 * 16];
+        double[] motions = new double[3 * 16];
+        byte[] kinds = new byte[16];
+        double[] normals = new double[3 * 16];
+        double[] amounts = new double[16];
+
+        void read(DataInputStream in) throws IOException {
+            if (size == kinds.length) {
+                int capacity = size * 2;
+                entityIds = Arrays.copyOf(entityIds, capacity);
+                boxes = Arrays.copyOf(boxes, 6 * capacity);
+                motions = Arrays.copyOf(motions, 3 * capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+                normals = Arrays.copyOf(normals, 3 * capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+            }
+            entityIds[size] = in.readInt();
+            for (int k = 0; k < 6; k++) {
+                boxes[6 * size + k] = in.readDouble();
+            }
+            for (int k = 0; k < 3; k++) {
+                motions[3 * size + k] = in.readDouble();
+            }
+            kinds[size] = in.readByte();
+            if (kinds[size] != PairResults.NONE) {
+                for (int k = 0; k < 3; k++) {
+                    normals[3 * size + k] = in.readDouble();
+                }
+                amounts[size] = in.readDouble();
+            }
+            size++;
+        }
+    }
+}
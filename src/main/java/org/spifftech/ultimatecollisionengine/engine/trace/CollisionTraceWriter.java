@@ -0,0 +1,121 @@
+package org.spifftech.ultimatecollisionengine.engine.trace;
+
+import org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper;
+import org.spifftech.ultimatecollisionengine.engine.PairResults;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a {@link CollisionTrace} while a world ticks. Each tick is assembled in memory and written
+ * in one piece by {@link #endTick()}, so a trace that is cut off still ends on a whole tick.
+ * <p>
+ * Only used while a trace is being recorded (see {@code /uce trace}); the engine does not touch it
+ * otherwise.
+ */
+public class CollisionTraceWriter implements Closeable {
+
+    private final Path file;
+    private final DataOutputStream out;
+    private final int maxTicks;
+
+    private final ByteArrayOutputStream tickBytes = new ByteArrayOutputStream(4096);
+    private final DataOutputStream tick = new DataOutputStream(tickBytes);
+    private long worldTime;
+    private int colliders;
+    private int ticks;
+    private long pairs;
+
+    /**
+     * @param maxTicks the trace is full after this many ticks, see {@link #isFull()}.
+     */
+    public CollisionTraceWriter(Path file, String worldId, int maxTicks) throws IOException {
+        this.file = file;
+        this.maxTicks = maxTicks;
+        Files.createDirectories(file.getParent());
+        this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file))));
+        out.writeInt(CollisionTrace.MAGIC);
+        out.writeShort(CollisionTrace.VERSION);
+        out.writeUTF(worldId);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    public long getPairs() {
+        return pairs;
+    }
+
+    public boolean isFull() {
+        return ticks >= maxTicks;
+    }
+
+    public void beginTick(long worldTime) {
+        this.worldTime = worldTime;
+        colliders = 0;
+        tickBytes.reset();
+    }
+
+    /**
+     * Starts a collider; exactly {@code pairCount} calls to {@link #pair} must follow.
+     */
+    public void collider(int entityId, double minHalfExtent, int partCount, double[] obbData, int pairCount)
+            throws IOException {
+        tick.writeInt(entityId);
+        tick.writeDouble(minHalfExtent);
+        tick.writeByte(partCount);
+        for (int k = 0, n = partCount * SatCollisionHelper.OBB_STRIDE; k < n; k++) {
+            tick.writeDouble(obbData[k]);
+        }
+        tick.writeInt(pairCount);
+        colliders++;
+    }
+
+    public void pair(int entityId, double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+                     double motionX, double motionY, double motionZ,
+                     byte kind, double normalX, double normalY, double normalZ, double amount) throws IOException {
+        tick.writeInt(entityId);
+        tick.writeDouble(minX);
+        tick.writeDouble(minY);
+        tick.writeDouble(minZ);
+        tick.writeDouble(maxX);
+        tick.writeDouble(maxY);
+        tick.writeDouble(maxZ);
+        tick.writeDouble(motionX);
+        tick.writeDouble(motionY);
+        tick.writeDouble(motionZ);
+        tick.writeByte(kind);
+        if (kind != PairResults.NONE) {
+            tick.writeDouble(normalX);
+            tick.writeDouble(normalY);
+            tick.writeDouble(normalZ);
+            tick.writeDouble(amount);
+        }
+        pairs++;
+    }
+
+    public void endTick() throws IOException {
+        out.writeByte(CollisionTrace.TICK);
+        out.writeLong(worldTime);
+        out.writeInt(colliders);
+        tickBytes.writeTo(out);
+        ticks++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.writeByte(CollisionTrace.END);
+        out.close();
+    }
+}
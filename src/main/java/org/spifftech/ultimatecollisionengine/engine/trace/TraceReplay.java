@@ -0,0 +1,326 @@
+package org.spifftech.ultimatecollisionengine.engine.trace;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper;
+import org.spifftech.ultimatecollisionengine.engine.LogHistogram;
+import org.spifftech.ultimatecollisionengine.engine.PairResults;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Standalone replay of a {@link CollisionTrace}: runs every traced pair through the current
+ * {@link SatCollisionHelper} kernels and the engine's contact rules, times it, and compares the
+ * results with the ones recorded by the engine that wrote the trace. Needs no server, world or
+ * bootstrap, so a laggy setup can be profiled and a kernel change checked for regressions from the
+ * command line ({@code ./gradlew replayTrace -PtraceArgs="<file> ..."}).
+ * <p>
+ * Per pair, replay follows the narrow phase's rules: a candidate whose relative motion needs
+ * a sweep is stopped at its time of impact, anything else that overlaps is pushed out of the
+ * deepest part. The corrections are then combined per entity the way {@code PushAccumulator}
+ * does, so diffs show up both per pair and per resolved entity.
+ * <p>
+ * Exits with status 1 if any result differs by more than the tolerance.
+ */
+public final class TraceReplay {
+
+    private static final String USAGE = "Usage: TraceReplay <trace" + CollisionTrace.EXTENSION + "> "
+            + "[--iterations N] [--warmup N] [--tolerance X] [--max-diffs N]";
+
+    private final CollisionTrace trace;
+    private final SatCollisionHelper.Contact contact = new SatCollisionHelper.Contact();
+    private final SatCollisionHelper.Contact partContact = new SatCollisionHelper.Contact();
+
+    // Replayed results of the current tick, laid out like the trace's
+    private byte[] kinds = new byte[64];
+    private double[] normals = new double[3 * 64];
+    private double[] amounts = new double[64];
+
+    private TraceReplay(CollisionTrace trace) {
+        this.trace = trace;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        Path file = Path.of(args[0]);
+        int iterations = 5;
+        int warmup = 2;
+        double tolerance = 1.0E-9;
+        int maxDiffs = 20;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                case "--tolerance" -> tolerance = Double.parseDouble(args[++i]);
+                case "--max-diffs" -> maxDiffs = Integer.parseInt(args[++i]);
+                default -> {
+                    System.err.println("Unknown option " + args[i]);
+                    System.err.println(USAGE);
+                    System.exit(2);
+                }
+            }
+        }
+
+        CollisionTrace trace = CollisionTrace.read(file);
+        long pairs = trace.getPairCount();
+        System.out.printf(Locale.ROOT, "%s: world %s, %d ticks, %d pairs%n",
+                file, trace.getWorldId(), trace.getTicks().size(), pairs);
+        if (pairs == 0) {
+            return;
+        }
+
+        TraceReplay replay = new TraceReplay(trace);
+        for (int i = 0; i < warmup; i++) {
+            replay.run(null);
+        }
+        LogHistogram tickNanos = new LogHistogram();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            replay.run(tickNanos);
+        }
+        double seconds = (System.nanoTime() - start) / 1.0E9;
+
+        System.out.printf(Locale.ROOT, "%d iterations in %.3f s: %.0f pairs/s, %.1f ns/pair%n",
+                iterations, seconds, pairs * iterations / seconds, seconds * 1.0E9 / (pairs * iterations));
+        System.out.printf(Locale.ROOT, "tick: mean %.0f ns, p50 %d ns, p90 %d ns, p99 %d ns, max %d ns%n",
+                tickNanos.getMean(), tickNanos.getPercentile(50), tickNanos.getPercentile(90),
+                tickNanos.getPercentile(99), tickNanos.getMax());
+
+        int diffs = replay.diff(tolerance, maxDiffs);
+        if (diffs > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Replays every tick once, recording each tick's time if {@code tickNanos} is given.
+     */
+    private void run(LogHistogram tickNanos) {
+        for (CollisionTrace.Tick tick : trace.getTicks()) {
+            long start = System.nanoTime();
+            replay(tick);
+            if (tickNanos != null) {
+                tickNanos.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void replay(CollisionTrace.Tick tick) {
+        if (kinds.length < tick.pairCount) {
+            kinds = new byte[tick.pairCount];
+            normals = new double[3 * tick.pairCount];
+            amounts = new double[tick.pairCount];
+        }
+        for (int i = 0; i < tick.colliderCount; i++) {
+            double[] obb = tick.obbData[i];
+            int parts = tick.partCounts[i];
+            for (int j = tick.pairStart[i]; j < tick.pairStart[i + 1]; j++) {
+                replayPair(tick, obb, parts, tick.minHalfExtents[i], j);
+            }
+        }
+    }
+
+    private void replayPair(CollisionTrace.Tick tick, double[] obb, int parts, double minHalfExtent, int j) {
+        double[] b = tick.boxes;
+        int o = 6 * j;
+        double minX = b[o], minY = b[o + 1], minZ = b[o + 2], maxX = b[o + 3], maxY = b[o + 4], maxZ = b[o + 5];
+        double mx = tick.motions[3 * j], my = tick.motions[3 * j + 1], mz = tick.motions[3 * j + 2];
+        kinds[j] = PairResults.NONE;
+
+        if (SatCollisionHelper.sweepNeeded(mx, my, mz, minHalfExtent, minX, minY, minZ, maxX, maxY, maxZ)) {
+            // Earliest impact over the parts, from where the box started the tick
+            boolean found = false;
+            for (int part = 0; part < parts; part++) {
+                if (SatCollisionHelper.obbAabbSweep(obb, part * SatCollisionHelper.OBB_STRIDE,
+                        minX - mx, minY - my, minZ - mz, maxX - mx, maxY - my, maxZ - mz, mx, my, mz, partContact)
+                        && (!found || partContact.time < contact.time)) {
+                    contact.set(partContact);
+                    found = true;
+                }
+            }
+            if (found && contact.time > 0.0) {
+                set(j, PairResults.IMPACT, contact.time);
+                return;
+            }
+        }
+
+        // Deepest overlap over the parts
+        boolean found = false;
+        for (int part = 0; part < parts; part++) {
+            if (SatCollisionHelper.obbAabbContact(obb, part * SatCollisionHelper.OBB_STRIDE,
+                    minX, minY, minZ, maxX, maxY, maxZ, partContact)
+                    && (!found || partContact.depth > contact.depth)) {
+                contact.set(partContact);
+                found = true;
+            }
+        }
+        if (found) {
+            set(j, PairResults.PUSH, contact.depth);
+        }
+    }
+
+    private void set(int j, byte kind, double amount) {
+        kinds[j] = kind;
+        normals[3 * j] = contact.normalX;
+        normals[3 * j + 1] = contact.normalY;
+        normals[3 * j + 2] = contact.normalZ;
+        amounts[j] = amount;
+    }
+
+    // --- Diffs ---
+
+    /**
+     * Replays each tick once more and compares it with the recorded results, per pair and per
+     * resolved entity. Prints a summary and the first {@code maxDiffs} differences.
+     *
+     * @return the number of differing pairs plus the number of differing entities.
+     */
+    private int diff(double tolerance, int maxDiffs) {
+        int kindDiffs = 0, valueDiffs = 0, entityDiffs = 0, printed = 0;
+        Resolution recorded = new Resolution();
+        Resolution replayed = new Resolution();
+
+        for (CollisionTrace.Tick tick : trace.getTicks()) {
+            replay(tick);
+            recorded.clear();
+            replayed.clear();
+            for (int j = 0; j < tick.pairCount; j++) {
+                byte kind = tick.kinds[j];
+                boolean differs;
+                if (kind != kinds[j]) {
+                    kindDiffs++;
+                    differs = true;
+                } else {
+                    differs = kind != PairResults.NONE && (Math.abs(tick.amounts[j] - amounts[j]) > tolerance
+                            || Math.abs(tick.normals[3 * j] - normals[3 * j]) > tolerance
+                            || Math.abs(tick.normals[3 * j + 1] - normals[3 * j + 1]) > tolerance
+                            || Math.abs(tick.normals[3 * j + 2] - normals[3 * j + 2]) > tolerance);
+                    if (differs) {
+                        valueDiffs++;
+                    }
+                }
+                if (differs && printed++ < maxDiffs) {
+                    System.out.printf(Locale.ROOT, "  tick %d, entity %d: recorded %s, replayed %s%n",
+                            tick.worldTime, tick.entityIds[j],
+                            describe(kind, tick.normals, tick.amounts, j), describe(kinds[j], normals, amounts, j));
+                }
+                recorded.add(tick, j, kind, tick.normals, tick.amounts);
+                replayed.add(tick, j, kinds[j], normals, amounts);
+            }
+            entityDiffs += recorded.countDiffs(replayed, tolerance);
+        }
+
+        System.out.printf(Locale.ROOT, "diffs: %d result kinds, %d normals/amounts, %d resolved entities (tolerance %g)%n",
+                kindDiffs, valueDiffs, entityDiffs, tolerance);
+        return kindDiffs + valueDiffs + entityDiffs;
+    }
+
+    private static String describe(byte kind, double[] normals, double[] amounts, int j) {
+        if (kind == PairResults.NONE) {
+            return "none";
+        }
+        return String.format(Locale.ROOT, "%s n=(%.6f, %.6f, %.6f) %s=%.9f",
+                kind == PairResults.PUSH ? "push" : "impact",
+                normals[3 * j], normals[3 * j + 1], normals[3 * j + 2],
+                kind == PairResults.PUSH ? "depth" : "time", amounts[j]);
+    }
+
+    /**
+     * One tick's corrections per entity, combined like {@code PushAccumulator}: per axis, the
+     * largest positive plus the most negative displacement.
+     */
+    private static final class Resolution {
+        private final Int2IntOpenHashMap slots = new Int2IntOpenHashMap();
+        private int[] entityIds = new int[16];
+        private double[] max = new double[48];
+        private double[] min = new double[48];
+        private int size;
+
+        Resolution() {
+            slots.defaultReturnValue(-1);
+        }
+
+        void clear() {
+            slots.clear();
+            size = 0;
+        }
+
+        void add(CollisionTrace.Tick tick, int j, byte kind, double[] normals, double[] amounts) {
+            if (kind == PairResults.NONE) {
+                return;
+            }
+            double nx = normals[3 * j], ny = normals[3 * j + 1], nz = normals[3 * j + 2];
+            double dx, dy, dz;
+            if (kind == PairResults.PUSH) {
+                double separation = amounts[j] + PairResults.SEPARATION;
+                dx = nx * separation;
+                dy = ny * separation;
+                dz = nz * separation;
+            } else {
+                double remaining = 1.0 - amounts[j];
+                dx = -tick.motions[3 * j] * remaining + nx * PairResults.SEPARATION;
+                dy = -tick.motions[3 * j + 1] * remaining + ny * PairResults.SEPARATION;
+                dz = -tick.motions[3 * j + 2] * remaining + nz * PairResults.SEPARATION;
+            }
+            int v = 3 * slot(tick.entityIds[j]);
+            max[v] = Math.max(max[v], dx);
+            max[v + 1] = Math.max(max[v + 1], dy);
+            max[v + 2] = Math.max(max[v + 2], dz);
+            min[v] = Math.min(min[v], dx);
+            min[v + 1] = Math.min(min[v + 1], dy);
+            min[v + 2] = Math.min(min[v + 2], dz);
+        }
+
+        /**
+         * Entities whose combined displacement differs between the two, including entities only
+         * one of them moved.
+         */
+        int countDiffs(Resolution other, double tolerance) {
+            int diffs = 0;
+            for (int s = 0; s < size; s++) {
+                int t = other.slots.get(entityIds[s]);
+                if (t < 0 || !sameDisplacement(3 * s, other, 3 * t, tolerance)) {
+                    diffs++;
+                }
+            }
+            for (int t = 0; t < other.size; t++) {
+                if (slots.get(other.entityIds[t]) < 0) {
+                    diffs++;
+                }
+            }
+            return diffs;
+        }
+
+        private boolean sameDisplacement(int v, Resolution other, int w, double tolerance) {
+            for (int k = 0; k < 3; k++) {
+                if (Math.abs((max[v + k] + min[v + k]) - (other.max[w + k] + other.min[w + k])) > tolerance) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int slot(int entityId) {
+            int s = slots.get(entityId);
+            if (s >= 0) {
+                return s;
+            }
+            if (size == entityIds.length) {
+                entityIds = Arrays.copyOf(entityIds, size * 2);
+                max = Arrays.copyOf(max, 6 * size);
+                min = Arrays.copyOf(min, 6 * size);
+            }
+            s = size++;
+            slots.put(entityId, s);
+            entityIds[s] = entityId;
+            Arrays.fill(max, 3 * s, 3 * s + 3, 0.0);
+            Arrays.fill(min, 3 * s, 3 * s + 3, 0.0);
+            return s;
+        }
+    }
+}
@@ -3,48 +3,78 @@ package org.spifftech.ultimatecollisionengine.entity;
 
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityType;
-import net.minecraft.entity.mob.MobEntity;
-import net.minecraft.entity.attribute.DefaultAttributeContainer;
-import net.minecraft.entity.attribute.EntityAttributes;
+import net.minecraft.network.listener.ClientPlayPacketListener;
+import net.minecraft.network.packet.Packet;
+import net.minecraft.network.packet.s2c.play.EntitySpawnS2CPacket;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.entity.data.DataTracker;
+import net.minecraft.entity.data.TrackedData;
+import net.minecraft.entity.data.TrackedDataHandlerRegistry;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
 import net.minecraft.util.math.Box;
-import net.minecraft.util.math.RotationAxis;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 
+import org.spifftech.ultimatecollisionengine.boxcollision.AabbBuffer;
+import org.spifftech.ultimatecollisionengine.boxcollision.ColliderMotion;
+import org.spifftech.ultimatecollisionengine.boxcollision.ColliderShape;
 import org.spifftech.ultimatecollisionengine.boxcollision.SatCollisionHelper;
+import org.spifftech.ultimatecollisionengine.engine.ColliderActivity;
+import org.spifftech.ultimatecollisionengine.engine.CollisionMetrics;
+import org.spifftech.ultimatecollisionengine.engine.PairResults;
+import org.spifftech.ultimatecollisionengine.engine.PushAccumulator;
+import org.spifftech.ultimatecollisionengine.engine.SeparatingAxisCache;
+import org.spifftech.ultimatecollisionengine.engine.TerrainShapeCache;
 
-import java.util.List;
 
-import static org.spifftech.ultimatecollisionengine.Ultimatecollisionengine.CollisionPushDistance;
 
 /**
  * An entity designed to act as a custom collision boundary (e.g., a wall or prop).
- * It uses a fixed, internal OBB that is NOT derived from its vanilla AABB/Dimensions.
+ * Its collision shape is a {@link ColliderShape} (one or more OBBs) that is NOT derived from its
+ * vanilla AABB/Dimensions; it is saved with the entity and synced to clients.
  * This entity is configured to prevent all vanilla movement and collision resolution.
+ * <p>
+ * It is a plain {@link Entity}, not a mob: no AI, attributes, health or living-entity tick, only
+ * the transform and the shape. Colliders saved while it was a mob load unchanged; the mob-only
+ * NBT keys are ignored and dropped on the next save.
  */
-public class CustomCollisionEntity extends MobEntity {
-
-    // --- 1. Custom OBB Definition (Independent of vanilla EntityDimensions) ---
-
-    // Define the custom collision box. This entity will be treated as this box.
-    // NOTE: The center of the OBB is relative to the entity's position, so halfExtents are fixed.
-    private static final SatCollisionHelper.OBB CustomCollisionBox;
-
-    static {
-        // Define the half extents (half-width, half-height, half-depth)
-        Vec3d halfExtents = new Vec3d(1.0, 1.0, 1.0); // Creates a 2x2x2 collision box
-
-        // Non-rotated axes (identity matrix) - **Only valid if entity never rotates!**
-        // These represent the local X, Y, Z axes of the OBB.
-        Vec3d[] axes = new Vec3d[] {
-                new Vec3d(1.0, 0.0, 0.0), // U1 (Local X)
-                new Vec3d(0.0, 1.0, 0.0), // U2 (Local Y)
-                new Vec3d(0.0, 0.0, 1.0)  // U3 (Local Z)
-        };
-
-        // The center is set to (0, 0, 0) initially, as it's relative to the entity's position.
-        CustomCollisionBox = new SatCollisionHelper.OBB(Vec3d.ZERO, axes, halfExtents);
-    }
+public class CustomCollisionEntity extends Entity {
+
+    // --- 1. Custom Collision Shape (Independent of vanilla EntityDimensions) ---
+
+    // The shape is synced to clients as NBT, so the renderer draws the same boxes the server collides with.
+    private static final TrackedData<NbtCompound> SHAPE =
+            DataTracker.registerData(CustomCollisionEntity.class, TrackedDataHandlerRegistry.NBT_COMPOUND);
+    private static final String SHAPE_KEY = "CollisionShape";
+    // The rotation is synced the same way, once, and then evaluated from the world time on both sides.
+    private static final TrackedData<NbtCompound> MOTION =
+            DataTracker.registerData(CustomCollisionEntity.class, TrackedDataHandlerRegistry.NBT_COMPOUND);
+    private static final String MOTION_KEY = "CollisionMotion";
+
+    // Local-space shape; offsets are relative to the entity's position and rotate with it.
+    private ColliderShape shape = ColliderShape.DEFAULT;
+    private ColliderMotion motion = ColliderMotion.DEFAULT;
+
+    // Reused for every contact query this entity runs, so the narrow phase does not allocate.
+    private final SatCollisionHelper.Contact contact = new SatCollisionHelper.Contact();
+    private final SatCollisionHelper.Contact partContact = new SatCollisionHelper.Contact();
+    // Scratch for movement clipping, which also runs on the client and must not touch the above
+    private final SatCollisionHelper.Contact moveContact = new SatCollisionHelper.Contact();
+    private final SatCollisionHelper.Contact moveOverlap = new SatCollisionHelper.Contact();
+    // Scratch for the public queries (see ColliderQueries)
+    private final SatCollisionHelper.Contact queryContact = new SatCollisionHelper.Contact();
+    private double[] partDepths = new double[32];
+
+    // Block collision boxes around this collider, only re-read when the terrain changes.
+    private final TerrainShapeCache terrainCache = new TerrainShapeCache();
+    // Last separating axis per nearby entity, for the scalar narrow-phase path
+    private final SeparatingAxisCache axisCache = new SeparatingAxisCache();
+    // Sleep state, managed by the CollisionWorld
+    private final ColliderActivity activity = new ColliderActivity();
+    private double[] terrainDepths = new double[64];
+    // How many times per tick the collider may be pushed out of the deepest block it overlaps
+    private static final int MAX_TERRAIN_ITERATIONS = 4;
 
     // Vanilla dimensions are set small, as they only affect world loading and entity hitbox/selection.
     private static final net.minecraft.entity.EntityDimensions VANILLA_DIMENSIONS =
@@ -56,232 +86,772 @@ public class CustomCollisionEntity extends MobEntity {
         return VANILLA_DIMENSIONS;
     }
 
-    // --- 2. Constructor and Attributes ---
+    // --- 2. Constructor and Sync ---
 
-    public CustomCollisionEntity(EntityType<? extends MobEntity> entityType, World world) {
+    public CustomCollisionEntity(EntityType<? extends CustomCollisionEntity> entityType, World world) {
         super(entityType, world);
     }
 
-    // Define the basic attributes (Health, Movement Speed)
-    public static DefaultAttributeContainer.Builder createCustomCollisionEntityAttributes() {
-        return MobEntity.createMobAttributes()
-                .add(EntityAttributes.GENERIC_MAX_HEALTH, 1)
-                .add(EntityAttributes.GENERIC_MOVEMENT_SPEED, 0.0); // Entity should not move
+    @Override
+    protected void initDataTracker() {
+        this.dataTracker.startTracking(SHAPE, ColliderShape.DEFAULT.toNbt());
+        this.dataTracker.startTracking(MOTION, ColliderMotion.DEFAULT.toNbt());
     }
 
     @Override
-    protected void initGoals() {
-        // CRITICAL: Leave empty! No goals means no vanilla movement/push attempts.
+    public void onTrackedDataSet(TrackedData<?> data) {
+        super.onTrackedDataSet(data);
+        if (SHAPE.equals(data)) {
+            applyShape(ColliderShape.fromNbt(this.dataTracker.get(SHAPE)));
+        } else if (MOTION.equals(data)) {
+            this.motion = ColliderMotion.fromNbt(this.dataTracker.get(MOTION));
+            transformValid = false;
+        }
     }
 
     @Override
-    protected void initDataTracker() {
-        super.initDataTracker();
+    public Packet<ClientPlayPacketListener> createSpawnPacket() {
+        return new EntitySpawnS2CPacket(this);
     }
 
-    // --- 3. OBB Creation and Collision Overrides ---
+    @Override
+    public void writeCustomDataToNbt(NbtCompound nbt) {
+        nbt.put(SHAPE_KEY, shape.toNbt());
+        nbt.put(MOTION_KEY, motion.toNbt());
+    }
 
-    /**
-     * Helper to create the OBB from the entity's *fixed* internal OBB definition.
-     * The OBB is translated to the entity's current world position.
-     */
-    private SatCollisionHelper.OBB getCurrentObb() {
-        // Step 1: Calculate the world-space center
-        Vec3d center = this.getPos();
+    @Override
+    public void readCustomDataFromNbt(NbtCompound nbt) {
+        // Colliders saved before shapes were configurable simply keep the default box
+        if (nbt.contains(SHAPE_KEY, NbtElement.COMPOUND_TYPE)) {
+            setShape(ColliderShape.fromNbt(nbt.getCompound(SHAPE_KEY)));
+        }
+        // Likewise for the motion: they keep the original one-degree-per-tick spin
+        if (nbt.contains(MOTION_KEY, NbtElement.COMPOUND_TYPE)) {
+            setMotion(ColliderMotion.fromNbt(nbt.getCompound(MOTION_KEY)));
+        }
+    }
 
-        center = center.add(new Vec3d(0,2,0));
+    public ColliderShape getShape() {
+        return shape;
+    }
 
-        // Step 2: Get the entity's current rotation (Yaw is the rotation around the Y-axis)
-        // We use the entity's current yaw, which is updated in the tick() method below.
-        float yawDegrees = this.getYaw();
+    /**
+     * Replaces the collision shape. The change is saved with the entity and sent to tracking clients.
+     */
+    public void setShape(ColliderShape shape) {
+        if (!shape.equals(this.shape)) {
+            this.dataTracker.set(SHAPE, shape.toNbt());
+        }
+    }
 
-        // Convert the yaw from degrees to a quaternion for rotation
-        // RotationAxis.POSITIVE_Y defines the rotation axis for yaw.
-        org.joml.Quaternionf rotation = RotationAxis.POSITIVE_Y.rotationDegrees(yawDegrees);
+    public ColliderMotion getMotion() {
+        return motion;
+    }
 
-        // Step 3: Rotate the OBB's *local* axes into *world* axes
-        Vec3d[] worldAxes = new Vec3d[3];
+    /**
+     * Replaces the rotation. Like the shape, it is saved and sent to tracking clients once.
+     */
+    public void setMotion(ColliderMotion motion) {
+        if (!motion.equals(this.motion)) {
+            this.dataTracker.set(MOTION, motion.toNbt());
+        }
+    }
 
-        // Rotate Local X-axis (U1)
-        worldAxes[0] = rotateVector(CustomCollisionBox.axes[0], rotation);
-        // Rotate Local Y-axis (U2)
-        worldAxes[1] = rotateVector(CustomCollisionBox.axes[1], rotation);
-        // Rotate Local Z-axis (U3)
-        worldAxes[2] = rotateVector(CustomCollisionBox.axes[2], rotation);
+    /**
+     * The collider's yaw at this tick plus {@code tickDelta}, from its {@link ColliderMotion}.
+     * The entity's own yaw field is not used.
+     */
+    public float getSpinYaw(float tickDelta) {
+        return motion.getYaw(this.getWorld().getTime(), tickDelta);
+    }
 
-        // Step 4: Create the final world-space OBB
-        return new SatCollisionHelper.OBB(
-                center,
-                worldAxes, // **Using the newly rotated axes!**
-                CustomCollisionBox.halfExtents
-        );
+    private void applyShape(ColliderShape newShape) {
+        this.shape = newShape;
+        int length = newShape.getPartCount() * SatCollisionHelper.OBB_STRIDE;
+        if (obbData.length != length) {
+            obbData = new double[length];
+        }
+        transformValid = false;
+        obbWrapper = null;
     }
 
-    private Vec3d rotateVector(Vec3d vector, org.joml.Quaternionf rotation) {
-        // Convert Minecraft Vec3d to JOML Vector3f
-        org.joml.Vector3f vec = new org.joml.Vector3f((float) vector.getX(), (float) vector.getY(), (float) vector.getZ());
+    // --- 3. OBB Creation and Collision Overrides ---
 
-        // Apply rotation
-        vec.rotate(rotation);
+    // --- Cached world-space transform ---
+    // Rebuilt only when the position, yaw or pitch actually change, so an idle collider
+    // costs a handful of field comparisons per tick.
+    private double[] obbData = new double[SatCollisionHelper.OBB_STRIDE]; // One packed OBB per shape part
+    private double sphereX, sphereY, sphereZ; // World-space center of the shape's bounding sphere
+    private Box obbBounds;
+    private Box obbSweptBounds; // obbBounds stretched back over this tick's movement
+    private SatCollisionHelper.OBB obbWrapper; // Built lazily for callers of getCurrentObb()
+    private boolean transformValid;
+    // Set whenever the transform is rebuilt, whoever asked; cleared only by CollisionWorld
+    private boolean transformChanged;
+    private double transformX, transformY, transformZ;
+    private double transformPrevX, transformPrevY, transformPrevZ;
+    private float transformYaw, transformPitch, transformSpinRate;
+
+    // Yaw change per tick in degrees, used to linearise the spin for swept tests
+    private float spinRate;
+    // Relative motion of the last candidate passed to needsSweep(), in this collider's frame
+    private double sweepMotionX, sweepMotionY, sweepMotionZ;
 
-        // Convert back to Minecraft Vec3d
-        return new Vec3d(vec.x(), vec.y(), vec.z());
-    }
-    // 🌟 Override the method that determines if THIS entity can be pushed.
-    @Override
-    public boolean isPushable() {
-        return false; // Prevents THIS entity from being moved by others.
+    /**
+     * Brings the cached world-space OBB up to date with the entity's current position and rotation.
+     * Movement queries call this while entities tick, so the return value only says whether this
+     * call rebuilt it; see {@link #consumeTransformChange()} for whether it moved since the broad phase.
+     *
+     * @return true if the transform had to be rebuilt.
+     */
+    public boolean updateTransform() {
+        double x = this.getX();
+        double y = this.getY();
+        double z = this.getZ();
+        float yawDegrees = getSpinYaw(0.0f);
+        float pitchDegrees = motion.getPitch();
+        spinRate = motion.getYawRate();
+
+        if (transformValid
+                && x == transformX && y == transformY && z == transformZ
+                && yawDegrees == transformYaw && pitchDegrees == transformPitch && spinRate == transformSpinRate
+                && this.prevX == transformPrevX && this.prevY == transformPrevY && this.prevZ == transformPrevZ) {
+            return false;
+        }
+
+        // Rotate the first part straight into the packed world-space layout; every part shares
+        // its axes, so the others only copy them and place their own center.
+        SatCollisionHelper.writeObb(obbData, 0,
+                x, y, z,
+                shape.getHalfX(0), shape.getHalfY(0), shape.getHalfZ(0),
+                yawDegrees, pitchDegrees);
+        int ax = SatCollisionHelper.OBB_AXES;
+        double u0x = obbData[ax], u0y = obbData[ax + 1], u0z = obbData[ax + 2];
+        double u1x = obbData[ax + 3], u1y = obbData[ax + 4], u1z = obbData[ax + 5];
+        double u2x = obbData[ax + 6], u2y = obbData[ax + 7], u2z = obbData[ax + 8];
+
+        boolean moved = this.prevX != x || this.prevY != y || this.prevZ != z;
+        Box bounds = null;
+        Box sweptBounds = null;
+        for (int i = 0, parts = shape.getPartCount(); i < parts; i++) {
+            int off = i * SatCollisionHelper.OBB_STRIDE;
+            if (i > 0) {
+                System.arraycopy(obbData, ax, obbData, off + ax, 9);
+                obbData[off + SatCollisionHelper.OBB_HALF_EXTENTS] = shape.getHalfX(i);
+                obbData[off + SatCollisionHelper.OBB_HALF_EXTENTS + 1] = shape.getHalfY(i);
+                obbData[off + SatCollisionHelper.OBB_HALF_EXTENTS + 2] = shape.getHalfZ(i);
+            }
+            double ox = shape.getOffsetX(i), oy = shape.getOffsetY(i), oz = shape.getOffsetZ(i);
+            obbData[off + SatCollisionHelper.OBB_CENTER] = x + u0x * ox + u1x * oy + u2x * oz;
+            obbData[off + SatCollisionHelper.OBB_CENTER + 1] = y + u0y * ox + u1y * oy + u2y * oz;
+            obbData[off + SatCollisionHelper.OBB_CENTER + 2] = z + u0z * ox + u1z * oy + u2z * oz;
+
+            Box partBounds = SatCollisionHelper.getBounds(obbData, off);
+            bounds = bounds == null ? partBounds : bounds.union(partBounds);
+            if (moved) {
+                Box partSwept = SatCollisionHelper.getSweptBounds(obbData, off,
+                        this.prevX - x, this.prevY - y, this.prevZ - z);
+                sweptBounds = sweptBounds == null ? partSwept : sweptBounds.union(partSwept);
+            }
+        }
+        obbBounds = bounds;
+        obbSweptBounds = moved ? sweptBounds : bounds;
+
+        double sx = shape.getSphereX(), sy = shape.getSphereY(), sz = shape.getSphereZ();
+        sphereX = x + u0x * sx + u1x * sy + u2x * sz;
+        sphereY = y + u0y * sx + u1y * sy + u2y * sz;
+        sphereZ = z + u0z * sx + u1z * sy + u2z * sz;
+        if (spinRate != 0.0f) {
+            // A spinning shape sweeps the cylinder traced by its bounding sphere around the yaw axis
+            double reach = Math.sqrt(sx * sx + sz * sz) + shape.getSphereRadius();
+            obbSweptBounds = obbSweptBounds.union(new Box(
+                    x - reach, sphereY - shape.getSphereRadius(), z - reach,
+                    x + reach, sphereY + shape.getSphereRadius(), z + reach));
+        }
+        obbWrapper = null;
+
+        transformX = x;
+        transformY = y;
+        transformZ = z;
+        transformPrevX = this.prevX;
+        transformPrevY = this.prevY;
+        transformPrevZ = this.prevZ;
+        transformYaw = yawDegrees;
+        transformPitch = pitchDegrees;
+        transformSpinRate = spinRate;
+        transformValid = true;
+        transformChanged = true;
+        return true;
     }
 
-    // 🌟 This is the KEY change: prevents vanilla collision resolution.
-    @Override
-    public boolean isCollidable() {
-        return false; // Ignores the default AABB check for *collision*.
+    /**
+     * Whether the transform has been rebuilt since the last call. Only the world's
+     * {@link org.spifftech.ultimatecollisionengine.engine.CollisionWorld} calls this, when it brings
+     * the collider's broad-phase entry up to date.
+     */
+    public boolean consumeTransformChange() {
+        boolean changed = transformChanged;
+        transformChanged = false;
+        return changed;
     }
 
-    // 🌟 Empty pushAwayFrom: ensures no vanilla push logic is executed.
-    @Override
-    public void pushAwayFrom(Entity other) {
-        // CRITICAL: Do nothing here. All collision is handled in tick().
+    /**
+     * The world-space OBBs of all shape parts, back to back in the packed layout used by
+     * {@link SatCollisionHelper}. Only valid after {@link #updateTransform()} has run this tick.
+     */
+    public double[] getObbData() {
+        return obbData;
     }
 
-    public void setEntityPosition(Entity other,Vec3d pos){
+    /**
+     * The world-space AABB enclosing all parts of the current shape.
+     */
+    public Box getObbBounds() {
+        updateTransform();
+        return obbBounds;
+    }
 
-        // Check if the entity is a player
-        if (other instanceof net.minecraft.server.network.ServerPlayerEntity player) {
+    /**
+     * The world-space AABB enclosing the OBB over its whole movement this tick,
+     * i.e. everything the collider could have touched since the previous tick.
+     */
+    public Box getSweptObbBounds() {
+        updateTransform();
+        return obbSweptBounds;
+    }
 
-            // 🌟 CRITICAL FIX: Use the specific player teleport method.
-            // This method sends a packet that tells the client to stop its movement
-            // prediction and accept the new position immediately.
-            // The last three arguments (yaw, pitch, flags) are important for full sync.
-            player.teleport(
-                    pos.getX(),
-                    pos.getY(),
-                    pos.getZ()
+    /**
+     * Helper to get the OBB of the shape's first part,
+     * translated to the entity's current world position and rotated by its yaw/pitch.
+     */
+    public SatCollisionHelper.OBB getCurrentObb() {
+        updateTransform();
+        if (obbWrapper == null) {
+            int ax = SatCollisionHelper.OBB_AXES;
+            int he = SatCollisionHelper.OBB_HALF_EXTENTS;
+            obbWrapper = new SatCollisionHelper.OBB(
+                    new Vec3d(obbData[0], obbData[1], obbData[2]),
+                    new Vec3d[] {
+                            new Vec3d(obbData[ax], obbData[ax + 1], obbData[ax + 2]),
+                            new Vec3d(obbData[ax + 3], obbData[ax + 4], obbData[ax + 5]),
+                            new Vec3d(obbData[ax + 6], obbData[ax + 7], obbData[ax + 8])
+                    },
+                    new Vec3d(obbData[he], obbData[he + 1], obbData[he + 2])
             );
+        }
+        return obbWrapper;
+    }
 
-        } else {
-            // For non-player entities (Mobs, Items, etc.):
-            // Use setPos and then let the entity tracker handle the periodic sync.
-            // Since you are in tick(), the tracker should pick up the change soon.
-            other.setPosition(pos);
+    /**
+     * The region the shape can cover at any yaw about the collider's current position: the
+     * cylinder traced by its bounding sphere, or the whole sphere around the entity if the shape
+     * is also pitched. Needs no transform, so it is valid on both sides at any time.
+     */
+    public Box getSpinBounds() {
+        double sx = shape.getSphereX(), sy = shape.getSphereY(), sz = shape.getSphereZ();
+        double radius = shape.getSphereRadius();
+        if (motion.getPitch() == 0.0f) {
+            // Spinning about world up only: the cylinder traced by the bounding sphere
+            double reach = Math.sqrt(sx * sx + sz * sz) + radius;
+            return new Box(getX() - reach, getY() + sy - radius, getZ() - reach,
+                    getX() + reach, getY() + sy + radius, getZ() + reach);
         }
+        double reach = Math.sqrt(sx * sx + sy * sy + sz * sz) + radius;
+        return new Box(getX() - reach, getY() - reach, getZ() - reach,
+                getX() + reach, getY() + reach, getZ() + reach);
+    }
 
+    // --- Client culling ---
+    // The vanilla hitbox is tiny, so without these the renderer would cull by the wrong box and
+    // stop drawing colliders a few blocks away.
 
+    /**
+     * The spin bounds, so the frustum test needs no transform on the client.
+     */
+    @Override
+    public Box getVisibilityBoundingBox() {
+        return getSpinBounds();
     }
-    // --- 4. Custom Collision Logic ---
 
-    // 🌟 Implement the custom collision logic in the tick loop.
+    /**
+     * Render distance scaled by the shape's size, like vanilla does with the hitbox.
+     */
     @Override
-    public void tick() {
-        //System.out.println("Ticking Custom Collision Entity");
-        super.tick();
+    public boolean shouldRender(double distance) {
+        double size = Math.max(1.0, shape.getSphereRadius() * 2.0) * 64.0 * getRenderDistanceMultiplier();
+        return distance < size * size;
+    }
 
-        if (!this.getWorld().isClient) {
+    public ColliderActivity getActivity() {
+        return activity;
+    }
 
+    // --- Compound shape tests ---
 
+    /**
+     * Whether the shape's bounding sphere touches an AABB. A miss rejects every part at once.
+     */
+    public boolean sphereIntersects(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        return SatCollisionHelper.sphereAabbIntersects(sphereX, sphereY, sphereZ, shape.getSphereRadius(),
+                minX, minY, minZ, maxX, maxY, maxZ);
+    }
 
-            // ⭐ NEW: Calculate and set a continuous rotation based on age (ticks)
-            // This is what makes the entity spin!
-            float spinSpeed = 1.0f; // Spin 5 degrees per tick
-            float newYaw = (this.age * spinSpeed) % 360.0f; // Get angle and wrap around 360
-            this.setYaw(newYaw);
+    /**
+     * Batch-tests every part of the shape against a buffer of AABBs, like
+     * {@link SatCollisionHelper#obbAabbBatch(double[], int, AabbBuffer, double[])}.
+     * Each box gets the deepest penetration over all parts, so it is {@code >= 0} if any part hits.
+     *
+     * @return the number of boxes hit by at least one part.
+     */
+    public int batchTest(AabbBuffer boxes, double[] depthOut) {
+        int hits = SatCollisionHelper.obbAabbBatch(obbData, 0, boxes, depthOut);
+        int parts = shape.getPartCount();
+        if (parts == 1) {
+            return hits;
+        }
 
-            // Since we only rotate around Y, pitch and roll remain 0
-            this.setPitch(0.0f);
+        int count = boxes.size();
+        if (partDepths.length < count) {
+            partDepths = new double[boxes.stride()];
+        }
+        for (int part = 1; part < parts; part++) {
+            SatCollisionHelper.obbAabbBatch(obbData, part * SatCollisionHelper.OBB_STRIDE, boxes, partDepths);
+            for (int i = 0; i < count; i++) {
+                depthOut[i] = Math.max(depthOut[i], partDepths[i]);
+            }
+        }
+        hits = 0;
+        for (int i = 0; i < count; i++) {
+            hits += depthOut[i] >= 0.0 ? 1 : 0;
+        }
+        return hits;
+    }
 
-            // Ensure the vanilla rotation fields are updated for the next tick
-            this.prevYaw = this.getYaw();
-            this.prevPitch = this.getPitch();
+    /**
+     * Early-out test of every part against one entity's AABB. Each part starts at the axis that
+     * separated it from the same entity last pass (see {@link SeparatingAxisCache}); if all parts
+     * are separated, their axes are stored for the next pass.
+     *
+     * @return true if any part overlaps the box.
+     */
+    public boolean partsIntersect(int entityId, double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+                                  CollisionMetrics.Recorder metrics) {
+        long cached = axisCache.get(entityId);
+        long axes = SeparatingAxisCache.UNKNOWN;
+        boolean allCached = true;
+        for (int part = 0, parts = shape.getPartCount(); part < parts; part++) {
+            int hint = SeparatingAxisCache.axis(cached, part);
+            int axis = SatCollisionHelper.obbAabbSeparatingAxis(obbData, part * SatCollisionHelper.OBB_STRIDE,
+                    minX, minY, minZ, maxX, maxY, maxZ, hint);
+            if (axis < 0) {
+                return true;
+            }
+            allCached &= axis == hint;
+            axes = SeparatingAxisCache.withAxis(axes, part, axis);
+        }
+        axisCache.put(entityId, axes);
+        metrics.scalarRejects++;
+        if (allCached) {
+            metrics.cachedRejects++;
+        }
+        return false;
+    }
 
+    /**
+     * Ends this pass of {@link #partsIntersect}; entities it was not called for are forgotten.
+     */
+    public void endAxisPass() {
+        axisCache.endPass();
+    }
 
-            // Step 1: Define a search area around the entity
-            // Base the search box on the custom OBB's size for efficiency.
-            // OBB max dimension = Math.max(x,y,z) * 2. Add a small buffer (0.1).
-            double maxHalfExtent = Math.max(CustomCollisionBox.halfExtents.getX(),
-                    Math.max(CustomCollisionBox.halfExtents.getY(),
-                            CustomCollisionBox.halfExtents.getZ()));
+    /**
+     * Contact query against every part of the shape; {@link #getContact()} receives the deepest one.
+     *
+     * @return true if any part overlaps the box.
+     */
+    public boolean partsContact(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        boolean found = false;
+        for (int part = 0, parts = shape.getPartCount(); part < parts; part++) {
+            if (SatCollisionHelper.obbAabbContact(obbData, part * SatCollisionHelper.OBB_STRIDE,
+                    minX, minY, minZ, maxX, maxY, maxZ, partContact)
+                    && (!found || partContact.depth > contact.depth)) {
+                contact.set(partContact);
+                found = true;
+            }
+        }
+        return found;
+    }
 
-            Box searchBox = this.getBoundingBox().expand(maxHalfExtent + 0.1);
-            searchBox = searchBox.offset(new Vec3d(0,1,0));
+    // --- Swept (continuous) collision ---
 
-            // Get a list of potential entities in the search area
-            List<Entity> nearbyEntities = this.getWorld().getOtherEntities(
-                    this,
-                    searchBox,
-                    (entity) -> entity.isAlive()
-                            && !(entity instanceof CustomCollisionEntity) // Don't check against self-type
-            );
+    /**
+     * Whether a candidate moved far enough relative to this collider over the last tick that it
+     * could have passed straight through it: its motion, minus this collider's own movement and the
+     * spin's surface velocity at the candidate (omega x r, linearised over the tick), is longer
+     * than the thinner of the two. Also stores that relative motion for {@link #sweptContact}.
+     */
+    public boolean needsSweep(Entity other) {
+        Box box = other.getBoundingBox();
+        return needsSweep(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ,
+                other.getX() - other.prevX, other.getY() - other.prevY, other.getZ() - other.prevZ);
+    }
 
-            // Get the world-space OBB for the current tick
-            SatCollisionHelper.OBB thisObb = this.getCurrentObb();
+    /**
+     * Same as {@link #needsSweep(Entity)} for a box that moved by {@code (moveX, moveY, moveZ)} this tick.
+     */
+    public boolean needsSweep(double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+                              double moveX, double moveY, double moveZ) {
+        double spin = Math.toRadians(spinRate);
+        double rx = (minX + maxX) * 0.5 - this.getX();
+        double rz = (minZ + maxZ) * 0.5 - this.getZ();
+
+        // Yaw is a right-handed turn about +Y, so omega x r = (spin * rz, 0, -spin * rx)
+        sweepMotionX = moveX - (this.getX() - this.prevX) - spin * rz;
+        sweepMotionY = moveY - (this.getY() - this.prevY);
+        sweepMotionZ = moveZ - (this.getZ() - this.prevZ) + spin * rx;
+
+        return SatCollisionHelper.sweepNeeded(sweepMotionX, sweepMotionY, sweepMotionZ, shape.getMinHalfExtent(),
+                minX, minY, minZ, maxX, maxY, maxZ);
+    }
 
-            // Step 2 & 3: Check intersection and resolve collision for each
-            for (Entity other : nearbyEntities) {
-                Box otherAabb = other.getBoundingBox();
+    public double getSweepMotionX() {
+        return sweepMotionX;
+    }
 
-                //other.setPosition(other.getPos().add(new Vec3d(0,1,0)));
-                //other.updatePosition(0,0,0);
-                System.out.println("Position");
-                System.out.println(other.getPos());
-                System.out.println(other.getType());
+    public double getSweepMotionY() {
+        return sweepMotionY;
+    }
 
-                //setEntityPosition(other, new Vec3d(0,0,0));
+    public double getSweepMotionZ() {
+        return sweepMotionZ;
+    }
 
+    /**
+     * Swept test of a box that ended the tick at {@code (minX .. maxZ)} after moving by the motion
+     * stored by {@link #needsSweep}, against every part at its current pose. {@link #getContact()}
+     * receives the earliest impact.
+     *
+     * @return true if the box touched any part during the tick.
+     */
+    public boolean sweptContact(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        double mx = sweepMotionX, my = sweepMotionY, mz = sweepMotionZ;
+        boolean found = false;
+        for (int part = 0, parts = shape.getPartCount(); part < parts; part++) {
+            if (SatCollisionHelper.obbAabbSweep(obbData, part * SatCollisionHelper.OBB_STRIDE,
+                    minX - mx, minY - my, minZ - mz, maxX - mx, maxY - my, maxZ - mz,
+                    mx, my, mz, partContact)
+                    && (!found || partContact.time < contact.time)) {
+                contact.set(partContact);
+                found = true;
+            }
+        }
+        return found;
+    }
 
+    /**
+     * Swept test for clipping an entity's own move: a box starting at {@code (minX .. maxZ)} and
+     * moving by {@code (moveX, moveY, moveZ)}, against every part at its current pose. {@code out}
+     * receives the earliest impact, unless it already holds an earlier one from another collider.
+     * A box that already overlaps a part hits it at time 0 with that part's push-out normal; parts
+     * the move leads away from are ignored, so an entity caught inside a collider can still leave.
+     * <p>
+     * Unlike {@link #sweptContact} this leaves {@link #getContact()} alone.
+     *
+     * @return true if {@code out} was replaced.
+     */
+    public boolean movementContact(double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+                                   double moveX, double moveY, double moveZ,
+                                   boolean hasHit, SatCollisionHelper.Contact out) {
+        boolean found = false;
+        for (int part = 0, parts = shape.getPartCount(); part < parts; part++) {
+            int off = part * SatCollisionHelper.OBB_STRIDE;
+            if (!SatCollisionHelper.obbAabbSweep(obbData, off,
+                    minX, minY, minZ, maxX, maxY, maxZ, moveX, moveY, moveZ, moveContact)) {
+                continue;
+            }
+            if (moveContact.time <= 0.0 && SatCollisionHelper.obbAabbContact(obbData, off,
+                    minX, minY, minZ, maxX, maxY, maxZ, moveOverlap)) {
+                // Already inside: the entered-last axis means nothing, use the way out instead
+                moveContact.normalX = moveOverlap.normalX;
+                moveContact.normalY = moveOverlap.normalY;
+                moveContact.normalZ = moveOverlap.normalZ;
+            }
+            double into = moveX * moveContact.normalX + moveY * moveContact.normalY + moveZ * moveContact.normalZ;
+            if (into >= 0.0) {
+                continue;
+            }
+            if ((!hasHit && !found) || moveContact.time < out.time) {
+                out.set(moveContact);
+                found = true;
+            }
+        }
+        return found;
+    }
 
+    // --- Queries ---
+    // Used by ColliderQueries. Like movementContact they write into a caller-owned contact and
+    // only replace it with a nearer hit, so one contact can collect the nearest over many colliders.
+
+    /**
+     * Ray cast against every part at its current pose, for the ray {@code origin + t * dir} with
+     * {@code t} in {@code [0, maxT]} (see {@link SatCollisionHelper#rayObb}). Rays that miss the
+     * bounding sphere skip the parts.
+     *
+     * @return true if {@code out} was replaced by a hit nearer than {@code maxT}.
+     */
+    public boolean rayContact(double originX, double originY, double originZ,
+                              double dirX, double dirY, double dirZ, double maxT,
+                              SatCollisionHelper.Contact out) {
+        if (!SatCollisionHelper.raySphereIntersects(sphereX, sphereY, sphereZ, shape.getSphereRadius(),
+                originX, originY, originZ, dirX, dirY, dirZ, maxT)) {
+            return false;
+        }
+        boolean found = false;
+        for (int part = 0, parts = shape.getPartCount(); part < parts; part++) {
+            if (SatCollisionHelper.rayObb(obbData, part * SatCollisionHelper.OBB_STRIDE,
+                    originX, originY, originZ, dirX, dirY, dirZ, maxT, queryContact)) {
+                out.set(queryContact);
+                // Later parts only count if they are nearer still
+                maxT = queryContact.time;
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Swept test of a box starting at {@code (minX .. maxZ)} and moving by {@code (moveX, moveY, moveZ)}
+     * against every part at its current pose (see {@link SatCollisionHelper#obbAabbSweep}).
+     *
+     * @return true if {@code out} was replaced by an impact earlier than {@code maxTime}.
+     */
+    public boolean boxCastContact(double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+                                  double moveX, double moveY, double moveZ, double maxTime,
+                                  SatCollisionHelper.Contact out) {
+        boolean found = false;
+        for (int part = 0, parts = shape.getPartCount(); part < parts; part++) {
+            if (SatCollisionHelper.obbAabbSweep(obbData, part * SatCollisionHelper.OBB_STRIDE,
+                    minX, minY, minZ, maxX, maxY, maxZ, moveX, moveY, moveZ, queryContact)
+                    && queryContact.time < maxTime) {
+                out.set(queryContact);
+                maxTime = queryContact.time;
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Swept test of a packed OBB moving by {@code (moveX, moveY, moveZ)} against every part at
+     * its current pose (see {@link SatCollisionHelper#obbObbSweep}).
+     *
+     * @return true if {@code out} was replaced by an impact earlier than {@code maxTime}.
+     */
+    public boolean obbCastContact(double[] obb, int off, double moveX, double moveY, double moveZ, double maxTime,
+                                  SatCollisionHelper.Contact out) {
+        boolean found = false;
+        for (int part = 0, parts = shape.getPartCount(); part < parts; part++) {
+            if (SatCollisionHelper.obbObbSweep(obbData, part * SatCollisionHelper.OBB_STRIDE,
+                    obb, off, moveX, moveY, moveZ, queryContact)
+                    && queryContact.time < maxTime) {
+                out.set(queryContact);
+                maxTime = queryContact.time;
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Whether a point lies inside any part at its current pose.
+     */
+    public boolean containsPoint(double x, double y, double z) {
+        double radius = shape.getSphereRadius();
+        double dx = x - sphereX, dy = y - sphereY, dz = z - sphereZ;
+        if (dx * dx + dy * dy + dz * dz > radius * radius) {
+            return false;
+        }
+        for (int part = 0, parts = shape.getPartCount(); part < parts; part++) {
+            if (SatCollisionHelper.obbContainsPoint(obbData, part * SatCollisionHelper.OBB_STRIDE, x, y, z)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
+    /**
+     * The result of this collider's last successful contact or sweep query. Reused between queries,
+     * so copy out what is needed before running the next one.
+     */
+    public SatCollisionHelper.Contact getContact() {
+        return contact;
+    }
 
+    // 🌟 Override the method that determines if THIS entity can be pushed.
+    @Override
+    public boolean isPushable() {
+        return false; // Prevents THIS entity from being moved by others.
+    }
 
-                // Check for OBB-AABB collision
-                if (SatCollisionHelper.obbAabbIntersects(thisObb, otherAabb)) {
+    // 🌟 This is the KEY change: prevents vanilla collision resolution.
+    @Override
+    public boolean isCollidable() {
+        return false; // Ignores the default AABB check for *collision*.
+    }
 
-                    System.out.println("Collision");
+    // 🌟 Empty pushAwayFrom: ensures no vanilla push logic is executed.
+    @Override
+    public void pushAwayFrom(Entity other) {
+        // CRITICAL: Do nothing here. All collision is handled in tick().
+    }
 
-                    // Collision found! Apply push logic to the 'other' entity.
-                    Vec3d centerVector = other.getPos().subtract(this.getPos());
+    // --- 4. Custom Collision Logic ---
 
-                    // --- Collision Resolution using simple AABB overlap logic (for demonstration) ---
-                    // This simple resolution is based on *AABB* overlap, not true OBB-AABB Minimum Translation Vector (MTV).
-                    // For true OBB-AABB MTV, the SatCollisionHelper should calculate and return the MTV vector.
+    // 🌟 Implement the custom collision logic in the tick loop.
+    @Override
+    public void tick() {
+        super.tick();
 
-                    // Calculate penetration depth (Overlap) for X and Z axes
-                    double overlapX = (thisObb.halfExtents.getX() + (otherAabb.getXLength() / 2.0)) - Math.abs(centerVector.getX());
-                    double overlapZ = (thisObb.halfExtents.getZ() + (otherAabb.getZLength() / 2.0)) - Math.abs(centerVector.getZ());
+        // The rotation is not stepped here: it is evaluated from the world time wherever it is
+        // needed (see ColliderMotion), so no yaw changes and no rotation packets every tick.
+        // Collision itself is resolved by the world's CollisionWorld once all entities have
+        // ticked, so colliders share one broad-phase pass.
+    }
 
-                    double pushFactor = 0.5; // Controls the strength of the push
-                    //pushFactor = (double) 1.0 / (double) getWorld().getGameRules().getInt(CollisionPushDistance);
+    /**
+     * Records moving an overlapping entity out along the minimum translation vector, plus a push
+     * away from this collider. The normal points from this collider towards the entity. The
+     * accumulator applies it together with every other push on the same entity this tick.
+     *
+     * @param pushFactor share of the separation also added to the entity's velocity.
+     */
+    public void pushOut(PushAccumulator pushes, Entity other, double normalX, double normalY, double normalZ, double depth,
+                        double pushFactor) {
+        double separation = depth + PairResults.SEPARATION;
+        pushes.add(other,
+                normalX * separation, normalY * separation, normalZ * separation,
+                normalX, normalY, normalZ,
+                normalX * separation * pushFactor, normalY * separation * pushFactor, normalZ * separation * pushFactor);
+    }
 
+    /**
+     * Records putting an entity that tunnelled into or through this collider back where it first
+     * touched it: the remaining {@code 1 - time} of its relative motion this tick is undone.
+     */
+    public void stopAtImpact(PushAccumulator pushes, Entity other, double normalX, double normalY, double normalZ,
+                             double time, double motionX, double motionY, double motionZ) {
+        double remaining = 1.0 - time;
+        pushes.add(other,
+                -motionX * remaining + normalX * PairResults.SEPARATION,
+                -motionY * remaining + normalY * PairResults.SEPARATION,
+                -motionZ * remaining + normalZ * PairResults.SEPARATION,
+                normalX, normalY, normalZ,
+                0.0, 0.0, 0.0);
+    }
 
-                    //double pushX = centerVector.getX() > 0 ? overlapX + 0.001 : -(overlapX + 0.001);
-                    //double pushZ = centerVector.getZ() > 0 ? overlapZ + 0.001 : -(overlapZ + 0.001);
-                    //other.addVelocity(pushX * pushFactor, 10.0, pushZ * pushFactor);
-                    System.out.println(other.getPos().add(centerVector));
-                    setEntityPosition(other,other.getPos().add(centerVector.multiply(0.1)));
+    /**
+     * Collider-collider narrow phase: bounding spheres first, then an OBB-OBB test for every pair
+     * of parts, resolving the deepest overlap. Since neither
+     * side is pushable by vanilla physics, an overlap is split evenly: each collider moves half of
+     * the minimum translation vector away from the other.
+     *
+     * @return true if the colliders overlapped.
+     */
+    public boolean resolveColliderCollision(CustomCollisionEntity other) {
+        double dx = other.sphereX - sphereX;
+        double dy = other.sphereY - sphereY;
+        double dz = other.sphereZ - sphereZ;
+        double reach = shape.getSphereRadius() + other.shape.getSphereRadius();
+        if (dx * dx + dy * dy + dz * dz > reach * reach) {
+            return false;
+        }
 
-                    // Determine MTV axis and apply repulsion
-                    if (overlapX < overlapZ) {
-                        // Push along X axis (axis with the least overlap)
-                        // Add a small epsilon (0.001) to ensure separation
-                        double pushX = centerVector.getX() > 0 ? overlapX + 0.001 : -(overlapX + 0.001);
-                        System.out.println("pushX");
-                        System.out.println(pushX);
+        boolean found = false;
+        for (int i = 0, parts = shape.getPartCount(); i < parts; i++) {
+            for (int j = 0, otherParts = other.shape.getPartCount(); j < otherParts; j++) {
+                if (SatCollisionHelper.obbObbContact(obbData, i * SatCollisionHelper.OBB_STRIDE,
+                        other.obbData, j * SatCollisionHelper.OBB_STRIDE, partContact)
+                        && (!found || partContact.depth > contact.depth)) {
+                    contact.set(partContact);
+                    found = true;
+                }
+            }
+        }
+        if (!found) {
+            return false;
+        }
 
-                        other.addVelocity(pushX * pushFactor, 0.0, 0.0);
+        double half = (contact.depth + 0.001) * 0.5;
+        double pushX = contact.normalX * half;
+        double pushY = contact.normalY * half;
+        double pushZ = contact.normalZ * half;
+
+        // Normal points from this collider towards the other one
+        this.setPosition(this.getX() - pushX, this.getY() - pushY, this.getZ() - pushZ);
+        other.setPosition(other.getX() + pushX, other.getY() + pushY, other.getZ() + pushZ);
+        // Later pairs this tick must see both colliders where they are now
+        this.updateTransform();
+        other.updateTransform();
+        return true;
+    }
 
-                    } else {
-                        // Push along Z axis
-                        double pushZ = centerVector.getZ() > 0 ? overlapZ + 0.001 : -(overlapZ + 0.001);
-                        System.out.println("pushZ");
-                        System.out.println(pushZ);
-                        other.addVelocity(0.0, 0.0, pushZ * pushFactor);
-                    }
+    /**
+     * Terrain narrow phase: tests the shape's parts against the cached collision boxes of the blocks in
+     * its swept region and pushes the collider out of them along the MTV, deepest overlap first.
+     *
+     * @return true if the collider was moved.
+     */
+    public boolean resolveTerrainCollision(ServerWorld world) {
+        AabbBuffer blocks = terrainCache.get(world, getSweptObbBounds());
+        int count = blocks.size();
+        if (count == 0) {
+            return false;
+        }
+        if (terrainDepths.length < count) {
+            terrainDepths = new double[blocks.stride()];
+        }
 
-                    other.velocityModified = true;
+        double totalX = 0.0, totalY = 0.0, totalZ = 0.0;
+        for (int iteration = 0; iteration < MAX_TERRAIN_ITERATIONS; iteration++) {
+            if (batchTest(blocks, terrainDepths) == 0) {
+                break;
+            }
 
-                    //other.velocityDirty = true;
+            // Deepest overlapping block first
+            int deepest = -1;
+            for (int i = 0; i < count; i++) {
+                if (terrainDepths[i] >= 0.0 && (deepest < 0 || terrainDepths[i] > terrainDepths[deepest])) {
+                    deepest = i;
                 }
             }
+            if (!partsContact(
+                    blocks.get(AabbBuffer.MIN_X, deepest), blocks.get(AabbBuffer.MIN_Y, deepest), blocks.get(AabbBuffer.MIN_Z, deepest),
+                    blocks.get(AabbBuffer.MAX_X, deepest), blocks.get(AabbBuffer.MAX_Y, deepest), blocks.get(AabbBuffer.MAX_Z, deepest))) {
+                break;
+            }
+
+            // The normal points from the OBB into the block, so the collider moves the other way.
+            // Only the part centers are shifted here; the full transform is rebuilt from the new position.
+            double separation = contact.depth + 0.001;
+            double pushX = -contact.normalX * separation;
+            double pushY = -contact.normalY * separation;
+            double pushZ = -contact.normalZ * separation;
+            for (int off = 0; off < obbData.length; off += SatCollisionHelper.OBB_STRIDE) {
+                obbData[off + SatCollisionHelper.OBB_CENTER] += pushX;
+                obbData[off + SatCollisionHelper.OBB_CENTER + 1] += pushY;
+                obbData[off + SatCollisionHelper.OBB_CENTER + 2] += pushZ;
+            }
+            totalX += pushX;
+            totalY += pushY;
+            totalZ += pushZ;
+        }
+
+        if (totalX == 0.0 && totalY == 0.0 && totalZ == 0.0) {
+            return false;
         }
+        this.setPosition(this.getX() + totalX, this.getY() + totalY, this.getZ() + totalZ);
+        this.updateTransform();
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package org.spifftech.ultimatecollisionengine.mixin;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.Vec3d;
+import org.spifftech.ultimatecollisionengine.engine.ColliderMovement;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Clips entity movement against colliders after vanilla has clipped it against blocks, on both
+ * sides, so contacts are predicted by the client instead of corrected by the server.
+ */
+@Mixin(Entity.class)
+public abstract class EntityMixin {
+
+    @Inject(method = "adjustMovementForCollisions(Lnet/minecraft/util/math/Vec3d;)Lnet/minecraft/util/math/Vec3d;",
+            at = @At("RETURN"), cancellable = true)
+    private void uce$clipAgainstColliders(Vec3d movement, CallbackInfoReturnable<Vec3d> cir) {
+        Vec3d adjusted = cir.getReturnValue();
+        Vec3d clipped = ColliderMovement.clip((Entity) (Object) this, adjusted);
+        if (clipped != adjusted) {
+            cir.setReturnValue(clipped);
+        }
+    }
+}
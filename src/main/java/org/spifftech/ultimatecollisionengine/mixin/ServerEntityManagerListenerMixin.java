@@ -0,0 +1,35 @@
+package org.spifftech.ultimatecollisionengine.mixin;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.entity.EntityLike;
+import org.spifftech.ultimatecollisionengine.engine.CollisionEngine;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Tells the collision engine when a server entity moves into another chunk section, so dormant
+ * colliders watching that section wake up (see {@code DormancyIndex}).
+ */
+@Mixin(targets = "net.minecraft.server.world.ServerEntityManager$Listener")
+public abstract class ServerEntityManagerListenerMixin {
+
+    @Shadow
+    @Final
+    private EntityLike entity;
+
+    @Shadow
+    private long sectionPos;
+
+    @Inject(method = "updateEntityPosition", at = @At("HEAD"))
+    private void uce$onUpdateEntityPosition(CallbackInfo ci) {
+        long section = ChunkSectionPos.toLong(entity.getBlockPos());
+        if (section != sectionPos && entity instanceof Entity moved) {
+            CollisionEngine.onSectionEntered(moved, section);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.spifftech.ultimatecollisionengine.mixin;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.WorldChunk;
+import org.spifftech.ultimatecollisionengine.engine.ChunkSectionRevisions;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Counts block changes per chunk section, see {@link ChunkSectionRevisions}.
+ */
+@Mixin(WorldChunk.class)
+public abstract class WorldChunkMixin implements ChunkSectionRevisions {
+
+    @Unique
+    private int[] uce$sectionRevisions;
+
+    @Inject(method = "setBlockState", at = @At("RETURN"))
+    private void uce$onSetBlockState(BlockPos pos, BlockState state, boolean moved, CallbackInfoReturnable<BlockState> cir) {
+        // setBlockState returns null when nothing changed
+        if (cir.getReturnValue() == null) {
+            return;
+        }
+
+        WorldChunk chunk = (WorldChunk) (Object) this;
+        if (uce$sectionRevisions == null) {
+            uce$sectionRevisions = new int[chunk.countVerticalSections()];
+        }
+        int sectionIndex = chunk.getSectionIndex(pos.getY());
+        if (sectionIndex >= 0 && sectionIndex < uce$sectionRevisions.length) {
+            uce$sectionRevisions[sectionIndex]++;
+        }
+    }
+
+    @Override
+    public int uce$getSectionRevision(int sectionIndex) {
+        return uce$sectionRevisions == null ? 0 : uce$sectionRevisions[sectionIndex];
+    }
+}
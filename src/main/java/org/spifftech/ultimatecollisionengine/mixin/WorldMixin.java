@@ -0,0 +1,26 @@
+package org.spifftech.ultimatecollisionengine.mixin;
+
+import net.minecraft.world.World;
+import org.spifftech.ultimatecollisionengine.engine.ColliderIndex;
+import org.spifftech.ultimatecollisionengine.engine.ColliderIndexHolder;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+/**
+ * Gives every world, server and client, its own {@link ColliderIndex}.
+ */
+@Mixin(World.class)
+public abstract class WorldMixin implements ColliderIndexHolder {
+
+    @Unique
+    private ColliderIndex uce$colliderIndex;
+
+    @Override
+    public ColliderIndex uce$getColliderIndex() {
+        // Created on first use so worlds without colliders never allocate one
+        if (uce$colliderIndex == null) {
+            uce$colliderIndex = new ColliderIndex();
+        }
+        return uce$colliderIndex;
+    }
+}